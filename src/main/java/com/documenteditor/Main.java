@@ -1,21 +1,58 @@
 package com.documenteditor;
 
+import com.documenteditor.adapter.FormatSelectingPersistence;
 import com.documenteditor.cli.ConsoleInterface;
+import com.documenteditor.exporter.BatchExporter;
+import com.documenteditor.exporter.BatchReport;
+import com.documenteditor.exporter.ExportFormat;
 import com.documenteditor.util.Logger;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Main entry point for the Document Editor application.
  * Demonstrates the use of multiple design patterns in a cohesive system.
+ * Run with {@code --batch <directory|glob> <formats> [output directory] [workers]}
+ * to export saved documents without the interactive menu.
  */
 public class Main {
     public static void main(String[] args) {
         Logger logger = Logger.getInstance();
         logger.log("Document Editor Application Started");
 
-        ConsoleInterface cli = new ConsoleInterface();
-        cli.run();
+        if (args.length > 0 && args[0].equals("--batch")) {
+            runBatch(args);
+        } else {
+            ConsoleInterface cli = new ConsoleInterface();
+            cli.run();
+        }
 
         logger.log("Document Editor Application Terminated");
         logger.close();
     }
+
+    private static void runBatch(String[] args) {
+        if (args.length < 3) {
+            System.out.println("Usage: --batch <directory|glob> <formats, e.g. html,md,pdf> [output directory] [workers]");
+            return;
+        }
+        try {
+            List<ExportFormat> formats = new ArrayList<>();
+            for (String name : args[2].split(",")) {
+                formats.add(ExportFormat.fromName(name));
+            }
+            Path outputDirectory = Paths.get(args.length > 3 ? args[3] : "exports");
+            int workers = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+            BatchExporter batch = new BatchExporter(new FormatSelectingPersistence(), formats, workers, 2 * workers);
+            BatchReport report = batch.export(BatchExporter.findInputs(args[1]), outputDirectory);
+            System.out.println(report);
+        } catch (Exception e) {
+            Logger.getInstance().error("Batch export failed", e);
+            System.out.println("✗ Batch export failed: " + e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,349 @@
+package com.documenteditor.adapter;
+
+import com.documenteditor.factory.*;
+import com.documenteditor.io.ChannelOutputStream;
+import com.documenteditor.model.*;
+import com.documenteditor.util.Logger;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ADAPTER PATTERN: Adapter class
+ * Saves and loads documents in a compact, versioned binary format.
+ *
+ * Layout (all integers are unsigned LEB128 varints):
+ * <pre>
+ *   magic    0x89 'D' 'O' 'C'
+ *   version  1 byte
+ *   strings  count, then per string: UTF-8 byte length, bytes
+ *   title    string reference
+ *   elements count, then per element: tag byte and fields
+ *     1 Paragraph  text
+ *     2 Headline   level, text
+ *     3 Image      filename, width, height
+ *   index    (version 2) big-endian longs: the file offset of every string,
+ *            then of every element
+ *   trailer  (version 2) big-endian longs: offsets of the title, the string
+ *            index and the element index; then the magic again
+ * </pre>
+ * A string reference is {@code index << 1} for an entry of the string
+ * table, or {@code length << 1 | 1} followed by the UTF-8 bytes for a
+ * string stored inline. Strings up to {@value #MAX_SHARED_LENGTH}
+ * characters are deduplicated through the table; longer ones, typically
+ * paragraph bodies, are stored inline so saving never holds a second copy
+ * of the document's text. The index lets {@link MappedDocument} open a
+ * file without reading it and decode any element on its own.
+ */
+public class BinaryDocumentPersistence implements DocumentPersistence {
+    /** File name extension that selects this format. */
+    public static final String EXTENSION = ".docb";
+
+    static final byte[] MAGIC = {(byte) 0x89, 'D', 'O', 'C'};
+    static final int VERSION = 2;
+    /** Title, string index and element index offsets, then the magic. */
+    static final int TRAILER_SIZE = 3 * 8 + 4;
+
+    static final int TAG_PARAGRAPH = 1;
+    static final int TAG_HEADLINE = 2;
+    static final int TAG_IMAGE = 3;
+
+    static final int MAX_SHARED_LENGTH = 256;
+    private static final int LOAD_BATCH_SIZE = 1024;
+
+    private Logger logger;
+
+    public BinaryDocumentPersistence() {
+        this.logger = Logger.getInstance();
+    }
+
+    /**
+     * Check whether a file starts with the binary format's magic bytes.
+     * @param filename The file to check
+     * @return true if it is a binary document
+     */
+    public static boolean isBinary(String filename) {
+        try (InputStream in = new FileInputStream(filename)) {
+            byte[] head = in.readNBytes(MAGIC.length);
+            return Arrays.equals(head, MAGIC);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean save(DocumentView document, String filename) {
+        // Both passes must see the same elements
+        DocumentView view = document instanceof Document ? ((Document) document).snapshot() : document;
+        List<DocumentElement> elements = view.getElements();
+
+        // First pass: collect the short strings into the table
+        Map<String, Integer> index = new HashMap<>();
+        List<String> table = new ArrayList<>();
+        share(view.getTitle(), index, table);
+        for (DocumentElement element : elements) {
+            if (element instanceof Paragraph) {
+                share(((Paragraph) element).getContent(), index, table);
+            } else if (element instanceof Headline) {
+                share(((Headline) element).getContent(), index, table);
+            } else if (element instanceof Image) {
+                share(((Image) element).getFilename(), index, table);
+            }
+        }
+
+        long[] stringOffsets = new long[table.size()];
+        long[] elementOffsets = new long[elements.size()];
+        try (ChannelOutputStream file = new ChannelOutputStream(filename);
+             DataOutputStream out = new DataOutputStream(file)) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            writeVarint(out, table.size());
+            for (int i = 0; i < table.size(); i++) {
+                stringOffsets[i] = file.getPosition();
+                byte[] bytes = table.get(i).getBytes(StandardCharsets.UTF_8);
+                writeVarint(out, bytes.length);
+                out.write(bytes);
+            }
+            long titleOffset = file.getPosition();
+            writeString(out, view.getTitle(), index);
+
+            // Second pass: the elements
+            writeVarint(out, elements.size());
+            int position = 0;
+            for (DocumentElement element : elements) {
+                elementOffsets[position++] = file.getPosition();
+                if (element instanceof Paragraph) {
+                    out.writeByte(TAG_PARAGRAPH);
+                    writeString(out, ((Paragraph) element).getContent(), index);
+                } else if (element instanceof Headline) {
+                    Headline headline = (Headline) element;
+                    out.writeByte(TAG_HEADLINE);
+                    writeVarint(out, headline.getLevel());
+                    writeString(out, headline.getContent(), index);
+                } else if (element instanceof Image) {
+                    Image image = (Image) element;
+                    out.writeByte(TAG_IMAGE);
+                    writeString(out, image.getFilename(), index);
+                    writeVarint(out, image.getWidth());
+                    writeVarint(out, image.getHeight());
+                } else {
+                    throw new IOException("Cannot store element of type " + element.getClass().getSimpleName());
+                }
+            }
+
+            // Offset index and trailer for random access
+            long stringIndexOffset = file.getPosition();
+            for (long offset : stringOffsets) {
+                out.writeLong(offset);
+            }
+            long elementIndexOffset = file.getPosition();
+            for (long offset : elementOffsets) {
+                out.writeLong(offset);
+            }
+            out.writeLong(titleOffset);
+            out.writeLong(stringIndexOffset);
+            out.writeLong(elementIndexOffset);
+            out.write(MAGIC);
+
+            logger.log("Document saved to: " + filename);
+            if (document instanceof Document) {
+                ((Document) document).setModified(false);
+            }
+            return true;
+
+        } catch (IOException e) {
+            logger.error("Failed to save document", e);
+            return false;
+        }
+    }
+
+    /**
+     * Open a saved document for reading without loading it: indexed files
+     * are memory-mapped and decoded lazily, older files are loaded in full.
+     * @param filename The file to open
+     * @return The document, or null if it cannot be read
+     */
+    @Override
+    public DocumentView open(String filename) {
+        try {
+            MappedDocument document = MappedDocument.open(Paths.get(filename));
+            if (document != null) {
+                logger.log("Document mapped from: " + filename);
+                return document;
+            }
+        } catch (IOException e) {
+            logger.error("Failed to map document", e);
+            return null;
+        }
+        return load(filename);
+    }
+
+    @Override
+    public Document load(String filename) {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(Paths.get(filename)), 64 * 1024))) {
+            // Every string and element takes at least one byte, which bounds the counts
+            long size = Files.size(Paths.get(filename));
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a binary document");
+            }
+            int version = in.readUnsignedByte();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported binary document version " + version);
+            }
+
+            Reader reader = new Reader(in);
+            int count = readCount(in, size);
+            // Grown as entries are read, so a corrupt count cannot allocate much
+            String[] table = new String[Math.min(count, LOAD_BATCH_SIZE)];
+            for (int i = 0; i < count; i++) {
+                if (i == table.length) {
+                    table = Arrays.copyOf(table, (int) Math.min(count, 2L * table.length));
+                }
+                table[i] = reader.readUtf8(readVarint(in));
+            }
+            Document document = new Document(reader.readString(table));
+
+            int elementCount = readCount(in, size);
+            List<DocumentElement> batch = new ArrayList<>(Math.min(elementCount, LOAD_BATCH_SIZE));
+            for (int i = 0; i < elementCount; i++) {
+                batch.add(readElement(in, reader, table));
+                if (batch.size() == LOAD_BATCH_SIZE) {
+                    document.addAll(batch);
+                    batch.clear();
+                }
+            }
+            document.addAll(batch);
+
+            logger.log("Document loaded from: " + filename);
+            document.setModified(false);
+            return document;
+
+        } catch (EOFException e) {
+            logger.error("Failed to load document - " + filename + " is truncated");
+            return null;
+        } catch (IOException e) {
+            logger.error("Failed to load document", e);
+            return null;
+        }
+    }
+
+    private DocumentElement readElement(DataInputStream in, Reader reader, String[] table) throws IOException {
+        int tag = in.readUnsignedByte();
+        return switch (tag) {
+            case TAG_PARAGRAPH -> new ParagraphFactory()
+                    .setText(reader.readString(table))
+                    .createElement();
+            case TAG_HEADLINE -> {
+                int level = readVarint(in);
+                yield new HeadlineFactory()
+                        .setLevel(level)
+                        .setText(reader.readString(table))
+                        .createElement();
+            }
+            case TAG_IMAGE -> new ImageFactory()
+                    .setFilename(reader.readString(table))
+                    .setWidth(readVarint(in))
+                    .setHeight(readVarint(in))
+                    .createElement();
+            default -> throw new IOException("Unknown element tag " + tag);
+        };
+    }
+
+    // Encoding helpers
+
+    private static void share(CharSequence text, Map<String, Integer> index, List<String> table) {
+        if (text.length() > MAX_SHARED_LENGTH) {
+            return;
+        }
+        String s = text.toString();
+        if (!index.containsKey(s)) {
+            index.put(s, table.size());
+            table.add(s);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, CharSequence text, Map<String, Integer> index) throws IOException {
+        if (text.length() <= MAX_SHARED_LENGTH) {
+            writeVarint(out, index.get(text.toString()) << 1);
+            return;
+        }
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, (bytes.length << 1) | 1);
+        out.write(bytes);
+    }
+
+    /**
+     * Read a count, rejecting values no file of the given size can hold.
+     */
+    private static int readCount(DataInput in, long size) throws IOException {
+        int count = readVarint(in);
+        if (count < 0 || count > size) {
+            throw new IOException("Corrupt binary document: count " + count + " out of range");
+        }
+        return count;
+    }
+
+    static void writeVarint(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarint(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * Decodes strings, reusing one byte buffer for all of them.
+     */
+    private static final class Reader {
+        private final DataInputStream in;
+        private byte[] bytes = new byte[1024];
+
+        Reader(DataInputStream in) {
+            this.in = in;
+        }
+
+        String readString(String[] table) throws IOException {
+            int ref = readVarint(in);
+            if ((ref & 1) != 0) {
+                return readUtf8(ref >>> 1);
+            }
+            int i = ref >>> 1;
+            if (i >= table.length) {
+                throw new IOException("String reference " + i + " out of range");
+            }
+            return table[i];
+        }
+
+        String readUtf8(int length) throws IOException {
+            if (length < 0) {
+                throw new IOException("Malformed string length");
+            }
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            in.readFully(bytes, 0, length);
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,701 @@
+package com.documenteditor.adapter;
+
+import com.documenteditor.factory.*;
+import com.documenteditor.io.ForcePolicy;
+import com.documenteditor.io.OutputSettings;
+import com.documenteditor.model.*;
+import com.documenteditor.observer.DocumentChangeEvent;
+import com.documenteditor.observer.DocumentObserver;
+import com.documenteditor.util.Logger;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+/**
+ * ADAPTER PATTERN: Adapter class
+ * Incremental persistence: a binary base snapshot plus an append-only log
+ * of the changes made since, stored next to it as {@code <file>.log}.
+ *
+ * The first save of a document writes the base in full and starts
+ * journaling the document's change events. Later saves of the same
+ * document to the same file append only those changes to the log. Once the
+ * log grows past a fraction of the base, a background thread writes a new
+ * base from an O(1) snapshot and carries over the log records appended
+ * since. Loading reads the base and replays the log.
+ *
+ * Each log record is a varint length, the payload and a CRC32 over both,
+ * so a record torn by a crash is detected; it and anything after it are
+ * ignored. Loading never writes: the log is only created, and an ignored
+ * tail only cut off, by the first save that appends. The log header fingerprints the
+ * base (size and modification time); a log left over from a replaced base
+ * is ignored. Bases and fresh logs are written to a temporary file and
+ * moved into place, so readers never see a half-written file.
+ */
+public class DeltaLogPersistence implements DocumentPersistence {
+    static final String LOG_SUFFIX = ".log";
+    static final String TEMP_SUFFIX = ".tmp";
+    static final String COMPACT_SUFFIX = ".compact";
+
+    private static final byte[] LOG_MAGIC = {(byte) 0x89, 'L', 'O', 'G'};
+    private static final int LOG_VERSION = 1;
+    private static final int HEADER_SIZE = LOG_MAGIC.length + 1 + 8 + 8;
+
+    private static final int OP_ADD = 1;
+    private static final int OP_REMOVE = 2;
+    private static final int OP_SET = 3;
+    private static final int OP_TITLE = 4;
+
+    private static final int VALUE_TEXT = 0;
+    private static final int VALUE_INT = 1;
+
+    private final BinaryDocumentPersistence base;
+    private final double compactionRatio;
+    private final long minCompactionSize;
+    private final Map<Document, Journal> journals;
+    private final ExecutorService compactor;
+    private Logger logger;
+
+    public DeltaLogPersistence() {
+        this(new BinaryDocumentPersistence(), 0.5, 64 * 1024);
+    }
+
+    /**
+     * @param base Writes and reads the base snapshots
+     * @param compactionRatio Compact once the log exceeds this fraction of the base size
+     * @param minCompactionSize Never compact a log smaller than this many bytes
+     */
+    public DeltaLogPersistence(BinaryDocumentPersistence base, double compactionRatio, long minCompactionSize) {
+        this.base = base;
+        this.compactionRatio = compactionRatio;
+        this.minCompactionSize = minCompactionSize;
+        this.journals = Collections.synchronizedMap(new WeakHashMap<>());
+        this.compactor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "delta-log-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.logger = Logger.getInstance();
+    }
+
+    /**
+     * Check whether a file is one this class keeps next to a base: a
+     * change log, or a temporary file of a save or compaction.
+     * @param filename The file to check
+     * @return true if the file is not a document of its own
+     */
+    public static boolean isSidecar(String filename) {
+        return filename.endsWith(LOG_SUFFIX) || filename.endsWith(TEMP_SUFFIX)
+                || filename.endsWith(COMPACT_SUFFIX);
+    }
+
+    @Override
+    public boolean save(DocumentView document, String filename) {
+        if (document instanceof Document) {
+            Document live = (Document) document;
+            Journal journal = journals.get(live);
+            if (journal != null && journal.appendTo(filename)) {
+                logger.log("Document changes appended to: " + filename + LOG_SUFFIX);
+                live.setModified(false);
+                maybeCompact(live, journal);
+                return true;
+            }
+        }
+        return saveFull(document, filename);
+    }
+
+    @Override
+    public Document load(String filename) {
+        Document document = base.load(filename);
+        if (document == null) {
+            return null;
+        }
+        Path log = Paths.get(filename + LOG_SUFFIX);
+        try {
+            long[] fingerprint = fingerprint(Paths.get(filename));
+            // Without a usable log, the first append creates one
+            long logSize = Math.max(0, replay(log, fingerprint, document));
+            Journal journal = attach(document, filename, fingerprint, logSize);
+            synchronized (journal) {
+                journal.cutTail = logSize > 0 && logSize < Files.size(log);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to replay change log " + log, e);
+            return null;
+        }
+        document.setModified(false);
+        return document;
+    }
+
+    /**
+     * Open the base lazily when the log holds no changes to replay,
+     * otherwise load and replay.
+     */
+    @Override
+    public DocumentView open(String filename) {
+        try {
+            Path log = Paths.get(filename + LOG_SUFFIX);
+            if (!Files.exists(log) || Files.size(log) <= HEADER_SIZE
+                    || !headerMatches(log, fingerprint(Paths.get(filename)))) {
+                return base.open(filename);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to open document", e);
+            return null;
+        }
+        return load(filename);
+    }
+
+    // Full saves and compaction
+
+    private boolean saveFull(DocumentView document, String filename) {
+        Path target = Paths.get(filename);
+        Path temp = Paths.get(filename + TEMP_SUFFIX);
+        // Journal from the snapshot that is written, so no change is missed
+        DocumentView view = document instanceof Document ? ((Document) document).snapshot() : document;
+        long version = document instanceof Document ? ((Document) document).getVersion() : -1;
+        Journal journal = null;
+        if (document instanceof Document) {
+            journal = attach((Document) document, filename, null, -1);
+            journal.restart(version);
+        }
+        try {
+            if (!base.save(view, temp.toString())) {
+                throw new IOException("Could not write " + temp);
+            }
+            long[] fingerprint = fingerprint(temp);
+            Path logTemp = Paths.get(filename + LOG_SUFFIX + TEMP_SUFFIX);
+            writeLog(logTemp, fingerprint, null, 0, 0);
+            if (journal != null) {
+                synchronized (journal) {
+                    replaceFiles(temp, target, logTemp, Paths.get(filename + LOG_SUFFIX));
+                    journal.reset(filename, fingerprint, HEADER_SIZE);
+                }
+            } else {
+                replaceFiles(temp, target, logTemp, Paths.get(filename + LOG_SUFFIX));
+            }
+        } catch (IOException e) {
+            logger.error("Failed to save document", e);
+            if (journal != null) {
+                journal.invalidate();
+            }
+            return false;
+        }
+        if (document instanceof Document) {
+            ((Document) document).setModified(false);
+        }
+        return true;
+    }
+
+    private void maybeCompact(Document document, Journal journal) {
+        DocumentSnapshot snapshot;
+        long logOffset;
+        int generation;
+        String filename;
+        synchronized (journal) {
+            long deltas = journal.logSize - HEADER_SIZE;
+            if (journal.compacting || deltas < minCompactionSize || deltas < compactionRatio * journal.fingerprint[0]) {
+                return;
+            }
+            journal.compacting = true;
+            snapshot = document.snapshot();
+            logOffset = journal.logSize;
+            generation = journal.generation;
+            filename = journal.filename;
+        }
+        compactor.execute(() -> compact(snapshot, journal, filename, generation, logOffset));
+    }
+
+    /**
+     * Write a new base from a snapshot and carry over the log records that
+     * were appended after the snapshot was taken.
+     */
+    private void compact(DocumentSnapshot snapshot, Journal journal, String filename, int generation, long logOffset) {
+        Path temp = Paths.get(filename + COMPACT_SUFFIX);
+        try {
+            if (!base.save(snapshot, temp.toString())) {
+                return;
+            }
+            long[] fingerprint = fingerprint(temp);
+            synchronized (journal) {
+                if (journal.generation != generation || !journal.filename.equals(filename)) {
+                    // A full save replaced the file meanwhile
+                    Files.deleteIfExists(temp);
+                    return;
+                }
+                Path log = Paths.get(filename + LOG_SUFFIX);
+                Path logTemp = Paths.get(filename + LOG_SUFFIX + TEMP_SUFFIX);
+                writeLog(logTemp, fingerprint, log, logOffset, journal.logSize - logOffset);
+                replaceFiles(temp, Paths.get(filename), logTemp, log);
+                journal.reset(filename, fingerprint, HEADER_SIZE + journal.logSize - logOffset);
+            }
+            logger.log("Change log compacted into: " + filename);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Change log compaction failed", e);
+        } finally {
+            synchronized (journal) {
+                journal.compacting = false;
+            }
+        }
+    }
+
+    /**
+     * Move a new base and then its log into place. A crash in between
+     * leaves a log whose fingerprint does not match, which is ignored.
+     */
+    private static void replaceFiles(Path baseTemp, Path base, Path logTemp, Path log) throws IOException {
+        Files.move(baseTemp, base, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(logTemp, log, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Write a log file: the header for a base, then optionally a range of
+     * records copied from another log.
+     */
+    private static void writeLog(Path path, long[] fingerprint, Path source, long from, long length) throws IOException {
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.put(LOG_MAGIC).put((byte) LOG_VERSION).putLong(fingerprint[0]).putLong(fingerprint[1]).flip();
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            if (source != null && length > 0) {
+                try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+                    long copied = 0;
+                    while (copied < length) {
+                        copied += in.transferTo(from + copied, length - copied, out);
+                    }
+                }
+            }
+            if (OutputSettings.getDefault().getForcePolicy() != ForcePolicy.NONE) {
+                out.force(false);
+            }
+        }
+    }
+
+    /**
+     * Identify a base file by its size and modification time.
+     */
+    private static long[] fingerprint(Path base) throws IOException {
+        return new long[] {Files.size(base), Files.getLastModifiedTime(base).toMillis()};
+    }
+
+    private static boolean headerMatches(Path log, long[] fingerprint) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(log), HEADER_SIZE))) {
+            byte[] magic = new byte[LOG_MAGIC.length];
+            in.readFully(magic);
+            return Arrays.equals(magic, LOG_MAGIC) && in.readUnsignedByte() == LOG_VERSION
+                    && in.readLong() == fingerprint[0] && in.readLong() == fingerprint[1];
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    // Journal
+
+    private Journal attach(Document document, String filename, long[] fingerprint, long logSize) {
+        Journal journal = journals.get(document);
+        if (journal == null) {
+            journal = new Journal();
+            document.attach(journal);
+            journals.put(document, journal);
+        }
+        synchronized (journal) {
+            journal.restart(document.getVersion());
+            if (logSize >= 0) {
+                journal.reset(filename, fingerprint, logSize);
+            }
+        }
+        return journal;
+    }
+
+    /**
+     * Records a document's changes between saves. Holds no reference to the
+     * document, so the weak journal map does not keep it alive.
+     */
+    private final class Journal implements DocumentObserver {
+        private final List<DocumentChangeEvent> pending = new ArrayList<>();
+        private long version;
+        private boolean broken;
+        private String filename;
+        private long[] fingerprint;
+        /** Bytes of log written for the base; 0 if the log is not created yet. */
+        private long logSize;
+        private int generation;
+        private boolean compacting;
+        /** The log continues past logSize with records that replay ignored. */
+        private boolean cutTail;
+
+        @Override
+        public synchronized void onChange(DocumentChangeEvent event) {
+            if (broken) {
+                return;
+            }
+            if (event.getVersion() != version + 1) {
+                // A missed change cannot be logged; the next save is a full one
+                broken = true;
+                pending.clear();
+                return;
+            }
+            version = event.getVersion();
+            pending.add(event);
+        }
+
+        @Override
+        public void update(Document document) {
+        }
+
+        /**
+         * Start recording afresh from the given document version.
+         */
+        synchronized void restart(long version) {
+            this.version = version;
+            this.broken = false;
+            this.pending.clear();
+        }
+
+        /**
+         * Force the next save to be a full one.
+         */
+        synchronized void invalidate() {
+            this.broken = true;
+            this.pending.clear();
+        }
+
+        synchronized void reset(String filename, long[] fingerprint, long logSize) {
+            this.filename = filename;
+            this.fingerprint = fingerprint;
+            this.logSize = logSize;
+            this.generation++;
+            this.cutTail = false;
+        }
+
+        /**
+         * Append the pending changes to the file's log.
+         * @return false if the changes cannot be appended and a full save is needed
+         */
+        synchronized boolean appendTo(String target) {
+            if (broken || filename == null || !filename.equals(target)) {
+                return false;
+            }
+            if (pending.isEmpty()) {
+                return true;
+            }
+            Path log = Paths.get(filename + LOG_SUFFIX);
+            try {
+                if (!Arrays.equals(fingerprint(Paths.get(filename)), fingerprint)) {
+                    // The base was replaced behind our back
+                    return false;
+                }
+                if (logSize == 0) {
+                    writeLog(log, fingerprint, null, 0, 0);
+                    logSize = HEADER_SIZE;
+                }
+            } catch (IOException e) {
+                logger.error("Failed to create change log", e);
+                return false;
+            }
+            try (FileChannel out = FileChannel.open(log, StandardOpenOption.WRITE)) {
+                if (cutTail && out.size() > logSize) {
+                    out.truncate(logSize);
+                    cutTail = false;
+                }
+                if (out.size() != logSize) {
+                    // The log was changed behind our back
+                    return false;
+                }
+                ByteBuffer records = ByteBuffer.wrap(encode(pending));
+                out.position(logSize);
+                while (records.hasRemaining()) {
+                    out.write(records);
+                }
+                if (OutputSettings.getDefault().getForcePolicy() != ForcePolicy.NONE) {
+                    out.force(false);
+                }
+                logSize = out.size();
+                pending.clear();
+                return true;
+            } catch (NoSuchFileException e) {
+                return false;
+            } catch (IOException e) {
+                logger.error("Failed to append to change log", e);
+                broken = true;
+                return false;
+            }
+        }
+    }
+
+    // Record encoding
+
+    /**
+     * Encode changes as log records. Only the last change of each property
+     * of each element is needed, and none for elements added in the same
+     * save: additions record the element as it is now.
+     */
+    private static byte[] encode(List<DocumentChangeEvent> events) throws IOException {
+        Map<DocumentElement, Map<String, Integer>> lastChange = new IdentityHashMap<>();
+        Set<DocumentElement> added = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < events.size(); i++) {
+            DocumentChangeEvent event = events.get(i);
+            if (event.getType() == DocumentChangeEvent.Type.ELEMENT_CHANGED) {
+                lastChange.computeIfAbsent(event.getElement(), e -> new HashMap<>())
+                        .put(event.getProperty(), i);
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < events.size(); i++) {
+            DocumentChangeEvent event = events.get(i);
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(payload);
+            switch (event.getType()) {
+                case ELEMENTS_ADDED -> {
+                    out.writeByte(OP_ADD);
+                    BinaryDocumentPersistence.writeVarint(out, event.getIndex());
+                    BinaryDocumentPersistence.writeVarint(out, event.getCount());
+                    for (DocumentElement element : event.getElements()) {
+                        writeElement(out, element);
+                        added.add(element);
+                    }
+                }
+                case ELEMENTS_REMOVED -> {
+                    out.writeByte(OP_REMOVE);
+                    BinaryDocumentPersistence.writeVarint(out, event.getIndex());
+                    BinaryDocumentPersistence.writeVarint(out, event.getCount());
+                }
+                case ELEMENT_CHANGED -> {
+                    if (added.contains(event.getElement())
+                            || lastChange.get(event.getElement()).get(event.getProperty()) != i) {
+                        continue;
+                    }
+                    out.writeByte(OP_SET);
+                    BinaryDocumentPersistence.writeVarint(out, event.getIndex());
+                    writeText(out, event.getProperty());
+                    Object value = event.getNewValue();
+                    if (value instanceof Integer) {
+                        out.writeByte(VALUE_INT);
+                        BinaryDocumentPersistence.writeVarint(out, (Integer) value);
+                    } else {
+                        out.writeByte(VALUE_TEXT);
+                        writeText(out, String.valueOf(value));
+                    }
+                }
+                case TITLE_CHANGED -> {
+                    out.writeByte(OP_TITLE);
+                    writeText(out, String.valueOf(event.getNewValue()));
+                }
+            }
+            byte[] data = payload.toByteArray();
+            DataOutputStream framed = new DataOutputStream(bytes);
+            BinaryDocumentPersistence.writeVarint(framed, data.length);
+            framed.write(data);
+            framed.writeInt(checksum(crc, data, data.length));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeElement(DataOutputStream out, DocumentElement element) throws IOException {
+        if (element instanceof Paragraph) {
+            out.writeByte(BinaryDocumentPersistence.TAG_PARAGRAPH);
+            writeText(out, ((Paragraph) element).getText());
+        } else if (element instanceof Headline) {
+            Headline headline = (Headline) element;
+            out.writeByte(BinaryDocumentPersistence.TAG_HEADLINE);
+            BinaryDocumentPersistence.writeVarint(out, headline.getLevel());
+            writeText(out, headline.getText());
+        } else if (element instanceof Image) {
+            Image image = (Image) element;
+            out.writeByte(BinaryDocumentPersistence.TAG_IMAGE);
+            writeText(out, image.getFilename());
+            BinaryDocumentPersistence.writeVarint(out, image.getWidth());
+            BinaryDocumentPersistence.writeVarint(out, image.getHeight());
+        } else {
+            throw new IOException("Cannot log element of type " + element.getClass().getSimpleName());
+        }
+    }
+
+    private static void writeText(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        BinaryDocumentPersistence.writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    // Replay
+
+    /**
+     * Apply a log to the document loaded from its base. The first record
+     * that is torn, fails its checksum or does not decode ends the log; it
+     * and anything after it are ignored. The file is left as it is, and the
+     * first append cuts the ignored tail off before writing.
+     * @return The length of the valid log, or -1 if there is no log for this base
+     */
+    private long replay(Path log, long[] fingerprint, Document document) throws IOException {
+        if (!Files.exists(log) || !headerMatches(log, fingerprint)) {
+            return -1;
+        }
+        long valid = HEADER_SIZE;
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(log), 64 * 1024))) {
+            in.skipNBytes(HEADER_SIZE);
+            long remaining = Files.size(log) - HEADER_SIZE;
+            while (true) {
+                byte[] data;
+                int length;
+                try {
+                    length = BinaryDocumentPersistence.readVarint(in);
+                    // Every record holds at least an operation byte; zeroed tails fail here
+                    if (length <= 0 || length > remaining) {
+                        break;
+                    }
+                    data = in.readNBytes(length);
+                    if (data.length < length || in.readInt() != checksum(crc, data, length)) {
+                        break;
+                    }
+                    apply(new DataInputStream(new ByteArrayInputStream(data)), document);
+                } catch (IOException | RuntimeException e) {
+                    // Cut short, malformed, or does not fit the document
+                    break;
+                }
+                long size = varintSize(length) + length + 4;
+                valid += size;
+                remaining -= size;
+            }
+        }
+        if (valid < Files.size(log)) {
+            logger.log("Ignoring torn or unreadable records at the end of " + log);
+        }
+        return valid;
+    }
+
+    /**
+     * CRC32 of a record's length and payload, so a record of zeros never
+     * passes as an empty one.
+     */
+    private static int checksum(CRC32 crc, byte[] data, int length) {
+        crc.reset();
+        crc.update(length >>> 24);
+        crc.update(length >>> 16);
+        crc.update(length >>> 8);
+        crc.update(length);
+        crc.update(data, 0, length);
+        return (int) crc.getValue();
+    }
+
+    private static void apply(DataInputStream in, Document document) throws IOException {
+        int op = in.readUnsignedByte();
+        switch (op) {
+            case OP_ADD -> {
+                int index = BinaryDocumentPersistence.readVarint(in);
+                int count = BinaryDocumentPersistence.readVarint(in);
+                List<DocumentElement> elements = new ArrayList<>(Math.min(count, in.available()));
+                for (int i = 0; i < count; i++) {
+                    elements.add(readElement(in));
+                }
+                if (index < 0 || index > document.getElementCount()) {
+                    throw new IOException("Change log addition at " + index + " out of range");
+                }
+                document.addAll(index, elements);
+            }
+            case OP_REMOVE -> {
+                int index = BinaryDocumentPersistence.readVarint(in);
+                int count = BinaryDocumentPersistence.readVarint(in);
+                if (index < 0 || count < 0 || index > document.getElementCount() - count) {
+                    throw new IOException("Change log removal at " + index + " out of range");
+                }
+                document.removeRange(index, index + count);
+            }
+            case OP_SET -> {
+                int index = BinaryDocumentPersistence.readVarint(in);
+                String property = readText(in);
+                Object value = in.readUnsignedByte() == VALUE_INT
+                        ? (Object) BinaryDocumentPersistence.readVarint(in)
+                        : readText(in);
+                if (index < 0 || index >= document.getElementCount()) {
+                    throw new IOException("Change log update at " + index + " out of range");
+                }
+                set(document.getElement(index), property, value);
+            }
+            case OP_TITLE -> document.setTitle(readText(in));
+            default -> throw new IOException("Unknown change log operation " + op);
+        }
+    }
+
+    private static void set(DocumentElement element, String property, Object value) throws IOException {
+        if (element instanceof Paragraph && property.equals("text")) {
+            ((Paragraph) element).setText((String) value);
+        } else if (element instanceof Headline && property.equals("text")) {
+            ((Headline) element).setText((String) value);
+        } else if (element instanceof Headline && property.equals("level")) {
+            ((Headline) element).setLevel((Integer) value);
+        } else if (element instanceof Image && property.equals("filename")) {
+            ((Image) element).setFilename((String) value);
+        } else if (element instanceof Image && property.equals("width")) {
+            ((Image) element).setWidth((Integer) value);
+        } else if (element instanceof Image && property.equals("height")) {
+            ((Image) element).setHeight((Integer) value);
+        } else {
+            throw new IOException("Cannot replay change of " + property + " on " + element.getClass().getSimpleName());
+        }
+    }
+
+    private static DocumentElement readElement(DataInputStream in) throws IOException {
+        int tag = in.readUnsignedByte();
+        return switch (tag) {
+            case BinaryDocumentPersistence.TAG_PARAGRAPH -> new ParagraphFactory()
+                    .setText(readText(in))
+                    .createElement();
+            case BinaryDocumentPersistence.TAG_HEADLINE -> {
+                int level = BinaryDocumentPersistence.readVarint(in);
+                yield new HeadlineFactory()
+                        .setLevel(level)
+                        .setText(readText(in))
+                        .createElement();
+            }
+            case BinaryDocumentPersistence.TAG_IMAGE -> new ImageFactory()
+                    .setFilename(readText(in))
+                    .setWidth(BinaryDocumentPersistence.readVarint(in))
+                    .setHeight(BinaryDocumentPersistence.readVarint(in))
+                    .createElement();
+            default -> throw new IOException("Unknown element tag " + tag);
+        };
+    }
+
+    private static String readText(DataInputStream in) throws IOException {
+        int length = BinaryDocumentPersistence.readVarint(in);
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Malformed string length");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+}
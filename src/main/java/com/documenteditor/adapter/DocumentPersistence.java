@@ -1,6 +1,7 @@
 package com.documenteditor.adapter;
 
 import com.documenteditor.model.Document;
+import com.documenteditor.model.DocumentView;
 
 /**
  * ADAPTER PATTERN: Target interface
@@ -9,11 +10,12 @@ import com.documenteditor.model.Document;
 public interface DocumentPersistence {
     /**
      * Save document to a file.
+     * Accepts a live document or an immutable snapshot taken for a background save.
      * @param document The document to save
      * @param filename The filename to save to
      * @return true if successful, false otherwise
      */
-    boolean save(Document document, String filename);
+    boolean save(DocumentView document, String filename);
     
     /**
      * Load document from a file.
@@ -21,4 +23,14 @@ public interface DocumentPersistence {
      * @return The loaded document, or null if failed
      */
     Document load(String filename);
+    
+    /**
+     * Open a document for reading only, e.g. to export it. Formats that
+     * support it may decode elements lazily instead of loading them all.
+     * @param filename The filename to open
+     * @return A view of the document, or null if failed
+     */
+    default DocumentView open(String filename) {
+        return load(filename);
+    }
 }
@@ -1,42 +1,44 @@
 package com.documenteditor.adapter;
 
 import com.documenteditor.factory.*;
+import com.documenteditor.io.ChannelWriter;
 import com.documenteditor.model.*;
 import com.documenteditor.util.Logger;
+import com.documenteditor.visitor.JSONSerializationVisitor;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * ADAPTER PATTERN: Adapter class
- * Adapts the JSONSerializationLibrary to work with our Document persistence needs.
+ * Adapts streaming JSON reading and writing to our Document persistence needs.
+ * Documents are written by a {@link JSONSerializationVisitor} and read back
+ * token by token, so neither direction builds the whole file in memory.
  */
 public class DocumentPersistenceAdapter implements DocumentPersistence {
-    private JSONSerializationLibrary jsonLibrary;
+    private static final int LOAD_BATCH_SIZE = 1024;
+    
     private Logger logger;
     
     public DocumentPersistenceAdapter() {
-        this.jsonLibrary = new JSONSerializationLibrary();
         this.logger = Logger.getInstance();
     }
     
     @Override
-    public boolean save(Document document, String filename) {
+    public boolean save(DocumentView document, String filename) {
         try {
-            // Convert document to serializable format
-            Object serializable = document.toSerializable();
-            
-            // Use the third-party library to stringify
-            String json = jsonLibrary.stringify(serializable);
-            
-            // Write to file
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))) {
-                writer.write(json);
+            // Stream the JSON straight to the file as UTF-8, field order fixed
+            try (Writer writer = new ChannelWriter(filename)) {
+                document.accept(new JSONSerializationVisitor(writer));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
             }
             
             logger.log("Document saved to: " + filename);
-            document.setModified(false);
+            if (document instanceof Document) {
+                ((Document) document).setModified(false);
+            }
             return true;
             
         } catch (IOException e) {
@@ -47,18 +49,10 @@ public class DocumentPersistenceAdapter implements DocumentPersistence {
     
     @Override
     public Document load(String filename) {
-        try {
-            // Read file content
-            StringBuilder json = new StringBuilder();
-            try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    json.append(line);
-                }
-            }
-            
-            // Parse using simplified approach (since our library's parse is basic)
-            Document document = parseDocument(json.toString());
+        // Stream the file through the tokenizer, building elements as they are read
+        try (JSONReader reader = new JSONReader(
+                new InputStreamReader(new FileInputStream(filename), StandardCharsets.UTF_8))) {
+            Document document = readDocument(reader);
             
             logger.log("Document loaded from: " + filename);
             document.setModified(false);
@@ -71,36 +65,94 @@ public class DocumentPersistenceAdapter implements DocumentPersistence {
     }
     
     /**
-     * Parse JSON string to Document.
-     * This is a simplified parser for demonstration.
+     * Read a document object. Fields may come in any order; elements are
+     * added in batches as they are read, so no intermediate tree is built.
      */
-    private Document parseDocument(String json) {
-        // Simplified parsing - extract title and elements
-        // In a production system, use a proper JSON library like Gson or Jackson
+    private Document readDocument(JSONReader reader) throws IOException {
+        Document document = null;
+        String title = null;
         
-        String title = extractValue(json, "title");
-        Document document = new Document(title != null ? title : "Untitled");
-        
-        // This is a simplified implementation
-        // A full implementation would properly parse the JSON array of elements
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "title" -> {
+                    title = reader.nextString();
+                    if (document != null) {
+                        document.setTitle(title);
+                    }
+                }
+                case "elements" -> {
+                    if (document == null) {
+                        document = new Document(title != null ? title : "Untitled");
+                    }
+                    readElements(reader, document);
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
         
-        return document;
+        if (reader.peek() != JSONReader.Token.END_DOCUMENT) {
+            throw reader.syntaxError("Unexpected data after the document");
+        }
+        return document != null ? document : new Document(title != null ? title : "Untitled");
     }
     
-    private String extractValue(String json, String key) {
-        String searchKey = "\"" + key + "\":\"";
-        int startIdx = json.indexOf(searchKey);
-        if (startIdx == -1) {
-            return null;
+    private void readElements(JSONReader reader, Document document) throws IOException {
+        List<DocumentElement> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+        reader.beginArray();
+        while (reader.hasNext()) {
+            batch.add(readElement(reader));
+            if (batch.size() == LOAD_BATCH_SIZE) {
+                document.addAll(batch);
+                batch.clear();
+            }
         }
+        reader.endArray();
+        document.addAll(batch);
+    }
+    
+    /**
+     * Read one element object and create it with the matching factory.
+     */
+    private DocumentElement readElement(JSONReader reader) throws IOException {
+        String type = null;
+        String text = "";
+        String filename = "";
+        int level = 1;
+        int width = 0;
+        int height = 0;
         
-        startIdx += searchKey.length();
-        int endIdx = json.indexOf("\"", startIdx);
-        
-        if (endIdx == -1) {
-            return null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "type" -> type = reader.nextString();
+                case "text" -> text = reader.nextString();
+                case "level" -> level = reader.nextInt();
+                case "filename" -> filename = reader.nextString();
+                case "width" -> width = reader.nextInt();
+                case "height" -> height = reader.nextInt();
+                default -> reader.skipValue();
+            }
         }
+        reader.endObject();
         
-        return json.substring(startIdx, endIdx);
+        if (type == null) {
+            throw reader.syntaxError("Element without a type");
+        }
+        DocumentElementFactory factory;
+        try {
+            factory = DocumentElementFactory.getFactory(type);
+        } catch (IllegalArgumentException e) {
+            throw reader.syntaxError(e.getMessage());
+        }
+        if (factory instanceof ParagraphFactory) {
+            ((ParagraphFactory) factory).setText(text);
+        } else if (factory instanceof HeadlineFactory) {
+            ((HeadlineFactory) factory).setText(text).setLevel(level);
+        } else if (factory instanceof ImageFactory) {
+            ((ImageFactory) factory).setFilename(filename).setWidth(width).setHeight(height);
+        }
+        return factory.createElement();
     }
 }
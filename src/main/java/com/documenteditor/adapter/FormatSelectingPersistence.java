@@ -0,0 +1,47 @@
+package com.documenteditor.adapter;
+
+import com.documenteditor.model.Document;
+import com.documenteditor.model.DocumentView;
+
+/**
+ * STRATEGY PATTERN: Context
+ * Picks the on-disk format per file: saves use the binary format for
+ * names ending in {@value BinaryDocumentPersistence#EXTENSION} and JSON
+ * otherwise; loads look at the file's magic bytes, so a binary file loads
+ * whatever it is called. Binary files are saved incrementally through a
+ * {@link DeltaLogPersistence} change log.
+ */
+public class FormatSelectingPersistence implements DocumentPersistence {
+    private final DocumentPersistence json;
+    private final DocumentPersistence binary;
+
+    public FormatSelectingPersistence() {
+        this(new DocumentPersistenceAdapter(), new DeltaLogPersistence());
+    }
+
+    public FormatSelectingPersistence(DocumentPersistence json, DocumentPersistence binary) {
+        this.json = json;
+        this.binary = binary;
+    }
+
+    @Override
+    public boolean save(DocumentView document, String filename) {
+        return filename.endsWith(BinaryDocumentPersistence.EXTENSION)
+                ? binary.save(document, filename)
+                : json.save(document, filename);
+    }
+
+    @Override
+    public Document load(String filename) {
+        return BinaryDocumentPersistence.isBinary(filename)
+                ? binary.load(filename)
+                : json.load(filename);
+    }
+
+    @Override
+    public DocumentView open(String filename) {
+        return BinaryDocumentPersistence.isBinary(filename)
+                ? binary.open(filename)
+                : json.open(filename);
+    }
+}
@@ -0,0 +1,426 @@
+package com.documenteditor.adapter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pull-style streaming JSON tokenizer.
+ * The caller asks for the next token and the reader scans just far enough
+ * to produce it from a fixed-size character buffer, so memory use does not
+ * depend on the size of the input, only on the longest single string.
+ * Malformed input is reported as an IOException with its line and column.
+ */
+public class JSONReader implements Closeable {
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * The kinds of token the reader can be positioned at.
+     */
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder text = new StringBuilder();
+    private int position;
+    private int limit;
+    private int line = 1;
+    private int lineStart;
+
+    /** Open containers, innermost last: true for objects, false for arrays. */
+    private boolean[] stack = new boolean[32];
+    private int depth;
+    /** Whether the innermost container has had a value yet (for commas). */
+    private boolean hasValue;
+    /** Whether the next string in the innermost object is a value rather than a name. */
+    private boolean expectValue;
+    private Token peeked;
+
+    public JSONReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Look at the kind of the next token without consuming it.
+     * @return The next token
+     * @throws IOException If the input cannot be read or is malformed
+     */
+    public Token peek() throws IOException {
+        if (peeked == null) {
+            peeked = scan();
+        }
+        return peeked;
+    }
+
+    /**
+     * Check whether the current object or array has another entry.
+     * @return false at the end of the container
+     * @throws IOException If the input cannot be read or is malformed
+     */
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+    }
+
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+    }
+
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        return text.toString();
+    }
+
+    public String nextString() throws IOException {
+        Token token = peek();
+        if (token != Token.STRING && token != Token.NUMBER) {
+            throw syntaxError("Expected a string but found " + token);
+        }
+        peeked = null;
+        return text.toString();
+    }
+
+    public int nextInt() throws IOException {
+        expect(Token.NUMBER);
+        try {
+            return Integer.parseInt(text, 0, text.length(), 10);
+        } catch (NumberFormatException e) {
+            throw syntaxError("Expected an integer but found " + text);
+        }
+    }
+
+    public boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        return text.charAt(0) == 't';
+    }
+
+    public void nextNull() throws IOException {
+        expect(Token.NULL);
+    }
+
+    /**
+     * Skip the next value, including everything nested inside it.
+     * @throws IOException If the input cannot be read or is malformed
+     */
+    public void skipValue() throws IOException {
+        int nesting = 0;
+        do {
+            Token token = peek();
+            peeked = null;
+            if (token == Token.BEGIN_OBJECT || token == Token.BEGIN_ARRAY) {
+                nesting++;
+            } else if (token == Token.END_OBJECT || token == Token.END_ARRAY) {
+                nesting--;
+            } else if (token == Token.END_DOCUMENT) {
+                throw syntaxError("Unexpected end of input");
+            }
+        } while (nesting > 0);
+    }
+
+    /**
+     * Read the next value as plain Java objects: Map, List, String, Long,
+     * Double, Boolean or null. Use only for small values; large documents
+     * should be read token by token.
+     * @return The value
+     * @throws IOException If the input cannot be read or is malformed
+     */
+    public Object readValue() throws IOException {
+        switch (peek()) {
+            case BEGIN_OBJECT: {
+                Map<String, Object> map = new HashMap<>();
+                beginObject();
+                while (hasNext()) {
+                    String name = nextName();
+                    map.put(name, readValue());
+                }
+                endObject();
+                return map;
+            }
+            case BEGIN_ARRAY: {
+                List<Object> list = new ArrayList<>();
+                beginArray();
+                while (hasNext()) {
+                    list.add(readValue());
+                }
+                endArray();
+                return list;
+            }
+            case STRING:
+                return nextString();
+            case NUMBER: {
+                String number = nextString();
+                try {
+                    if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                        return Long.parseLong(number);
+                    }
+                    return Double.parseDouble(number);
+                } catch (NumberFormatException e) {
+                    throw syntaxError("Invalid number " + number);
+                }
+            }
+            case BOOLEAN:
+                return nextBoolean();
+            case NULL:
+                nextNull();
+                return null;
+            default:
+                throw syntaxError("Expected a value but found " + peek());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Create an error that points at the current input position.
+     * @param message What went wrong
+     * @return The exception to throw
+     */
+    public IOException syntaxError(String message) {
+        return new IOException(message + " at line " + line + " column " + (position - lineStart + 1));
+    }
+
+    private void expect(Token expected) throws IOException {
+        Token token = peek();
+        if (token != expected) {
+            throw syntaxError("Expected " + expected + " but found " + token);
+        }
+        peeked = null;
+    }
+
+    // Scanner
+
+    private Token scan() throws IOException {
+        int c = nextNonWhitespace();
+        boolean inObject = depth > 0 && stack[depth - 1];
+
+        if (c == '}' || c == ']') {
+            if (depth == 0 || inObject != (c == '}') || (inObject && expectValue)) {
+                throw syntaxError("Unexpected '" + (char) c + "'");
+            }
+            depth--;
+            hasValue = true;
+            expectValue = false;
+            return c == '}' ? Token.END_OBJECT : Token.END_ARRAY;
+        }
+        if (c == -1) {
+            if (depth > 0) {
+                throw syntaxError("Unexpected end of input");
+            }
+            return Token.END_DOCUMENT;
+        }
+
+        // Separators before the next entry
+        if (inObject && expectValue) {
+            if (c != ':') {
+                throw syntaxError("Expected ':'");
+            }
+            c = nextNonWhitespace();
+        } else if (depth > 0 && hasValue) {
+            if (c != ',') {
+                throw syntaxError("Expected ',' or closing bracket");
+            }
+            c = nextNonWhitespace();
+        } else if (depth == 0 && hasValue) {
+            throw syntaxError("Unexpected data after the top-level value");
+        }
+
+        if (inObject && !expectValue) {
+            if (c != '"') {
+                throw syntaxError("Expected a name");
+            }
+            readString();
+            expectValue = true;
+            return Token.NAME;
+        }
+
+        // A value: the container now has one, and an object wants a name next
+        hasValue = true;
+        expectValue = false;
+        switch (c) {
+            case '{':
+                push(true);
+                return Token.BEGIN_OBJECT;
+            case '[':
+                push(false);
+                return Token.BEGIN_ARRAY;
+            case '"':
+                readString();
+                return Token.STRING;
+            case 't':
+                readLiteral("true");
+                return Token.BOOLEAN;
+            case 'f':
+                readLiteral("false");
+                return Token.BOOLEAN;
+            case 'n':
+                readLiteral("null");
+                return Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    readNumber(c);
+                    return Token.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    private void push(boolean object) {
+        if (depth == stack.length) {
+            boolean[] grown = new boolean[depth * 2];
+            System.arraycopy(stack, 0, grown, 0, depth);
+            stack = grown;
+        }
+        stack[depth++] = object;
+        hasValue = false;
+        expectValue = false;
+    }
+
+    private void readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            // Copy the plain run up to the next quote or escape in one go
+            int start = position;
+            while (position < limit) {
+                char c = buffer[position];
+                if (c == '"' || c == '\\') {
+                    break;
+                }
+                if (c == '\n') {
+                    line++;
+                    lineStart = position + 1;
+                }
+                position++;
+            }
+            text.append(buffer, start, position - start);
+            if (position == limit) {
+                if (!fill()) {
+                    throw syntaxError("Unterminated string");
+                }
+                continue;
+            }
+            char c = buffer[position++];
+            if (c == '"') {
+                return;
+            }
+            text.append(readEscape());
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u': {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("Invalid \\u escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            }
+            default:
+                throw syntaxError("Invalid escape sequence");
+        }
+    }
+
+    private void readNumber(int first) throws IOException {
+        text.setLength(0);
+        text.append((char) first);
+        while (true) {
+            if (position == limit && !fill()) {
+                break;
+            }
+            char c = buffer[position];
+            if ((c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                text.append(c);
+                position++;
+            } else {
+                break;
+            }
+        }
+        if (text.length() == 1 && first == '-') {
+            throw syntaxError("Invalid number");
+        }
+    }
+
+    private void readLiteral(String literal) throws IOException {
+        text.setLength(0);
+        text.append(literal.charAt(0));
+        for (int i = 1; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) {
+                throw syntaxError("Invalid literal, expected " + literal);
+            }
+        }
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == '\n') {
+                line++;
+                lineStart = position;
+            } else if (c != ' ' && c != '\t' && c != '\r') {
+                return c;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private boolean fill() throws IOException {
+        lineStart -= limit;
+        position = 0;
+        limit = 0;
+        int n;
+        do {
+            n = in.read(buffer, 0, buffer.length);
+        } while (n == 0);
+        if (n < 0) {
+            return false;
+        }
+        limit = n;
+        return true;
+    }
+}
@@ -1,6 +1,8 @@
 package com.documenteditor.adapter;
 
-import java.util.HashMap;
+import com.documenteditor.text.Escaper;
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.Map;
 
 /**
@@ -21,7 +23,7 @@ public class JSONSerializationLibrary {
         }
         
         if (obj instanceof String) {
-            return "\"" + escapeJson((String) obj) + "\"";
+            return "\"" + Escaper.JSON.escape((String) obj) + "\"";
         }
         
         if (obj instanceof Number || obj instanceof Boolean) {
@@ -81,26 +83,17 @@ public class JSONSerializationLibrary {
      */
     @SuppressWarnings("unchecked")
     public Map<String, Object> parse(String json) {
-        // Simplified parser - in real scenario, would use a proper JSON library
-        json = json.trim();
-        if (!json.startsWith("{") || !json.endsWith("}")) {
-            throw new IllegalArgumentException("Invalid JSON object");
+        try (JSONReader reader = new JSONReader(new StringReader(json))) {
+            if (reader.peek() != JSONReader.Token.BEGIN_OBJECT) {
+                throw new IllegalArgumentException("Invalid JSON object");
+            }
+            Map<String, Object> result = (Map<String, Object>) reader.readValue();
+            if (reader.peek() != JSONReader.Token.END_DOCUMENT) {
+                throw new IllegalArgumentException("Invalid JSON object");
+            }
+            return result;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getMessage(), e);
         }
-        
-        Map<String, Object> result = new HashMap<>();
-        
-        // Very basic parsing (this is a simulation)
-        // In a real implementation, you'd use a proper JSON parser
-        String content = json.substring(1, json.length() - 1);
-        
-        return result;
-    }
-    
-    private String escapeJson(String str) {
-        return str.replace("\\", "\\\\")
-                  .replace("\"", "\\\"")
-                  .replace("\n", "\\n")
-                  .replace("\r", "\\r")
-                  .replace("\t", "\\t");
     }
 }
@@ -0,0 +1,173 @@
+package com.documenteditor.adapter;
+
+import com.documenteditor.text.Escaper;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Streaming JSON token writer, the counterpart of {@link JSONReader}.
+ * Tokens are written in order into a small buffer that is drained to the
+ * underlying Writer as it fills, so no value is ever built as a String
+ * first. Commas and colons are inserted automatically; strings, including
+ * ropes, are escaped straight into the buffer.
+ */
+public class JSONWriter implements Closeable, Flushable {
+    private static final int FLUSH_THRESHOLD = 8 * 1024;
+
+    private final Writer out;
+    private final StringBuilder buffer = new StringBuilder(FLUSH_THRESHOLD + 256);
+    private char[] scratch = new char[FLUSH_THRESHOLD + 256];
+
+    /** Per open container, innermost last: whether it already has an entry. */
+    private boolean[] nonEmpty = new boolean[32];
+    private int depth;
+    /** Set after a name, so the value that follows takes no comma. */
+    private boolean afterName;
+
+    public JSONWriter(Writer out) {
+        this.out = out;
+    }
+
+    public JSONWriter beginObject() throws IOException {
+        open('{');
+        return this;
+    }
+
+    public JSONWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    public JSONWriter beginArray() throws IOException {
+        open('[');
+        return this;
+    }
+
+    public JSONWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    /**
+     * Write the name of the next object member.
+     * @param name The member name
+     * @return This writer, for chaining
+     * @throws IOException If the output cannot be written
+     */
+    public JSONWriter name(String name) throws IOException {
+        separate();
+        buffer.append('"');
+        Escaper.JSON.escape(name, buffer).append("\":");
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * Write a string value; ropes are escaped chunk by chunk.
+     * @param value The value, or null
+     * @return This writer, for chaining
+     * @throws IOException If the output cannot be written
+     */
+    public JSONWriter value(CharSequence value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        separate();
+        buffer.append('"');
+        Escaper.JSON.escape(value, buffer).append('"');
+        return drainIfFull();
+    }
+
+    public JSONWriter value(long value) throws IOException {
+        separate();
+        buffer.append(value);
+        return drainIfFull();
+    }
+
+    public JSONWriter value(boolean value) throws IOException {
+        separate();
+        buffer.append(value);
+        return drainIfFull();
+    }
+
+    public JSONWriter nullValue() throws IOException {
+        separate();
+        buffer.append("null");
+        return drainIfFull();
+    }
+
+    /**
+     * Drain the buffer and flush the underlying Writer.
+     */
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    /**
+     * Drain the buffer and close the underlying Writer.
+     */
+    @Override
+    public void close() throws IOException {
+        drain();
+        out.close();
+    }
+
+    private void open(char bracket) throws IOException {
+        separate();
+        buffer.append(bracket);
+        if (depth == nonEmpty.length) {
+            boolean[] grown = new boolean[depth * 2];
+            System.arraycopy(nonEmpty, 0, grown, 0, depth);
+            nonEmpty = grown;
+        }
+        nonEmpty[depth++] = false;
+    }
+
+    private JSONWriter close(char bracket) throws IOException {
+        if (depth == 0 || afterName) {
+            throw new IllegalStateException("Nothing to close with '" + bracket + "'");
+        }
+        depth--;
+        buffer.append(bracket);
+        return drainIfFull();
+    }
+
+    /**
+     * Write the comma before a value or name, unless it follows a name or
+     * is the first entry of its container.
+     */
+    private void separate() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (nonEmpty[depth - 1]) {
+                buffer.append(',');
+            }
+            nonEmpty[depth - 1] = true;
+        }
+    }
+
+    private JSONWriter drainIfFull() throws IOException {
+        if (buffer.length() >= FLUSH_THRESHOLD) {
+            drain();
+        }
+        return this;
+    }
+
+    private void drain() throws IOException {
+        int length = buffer.length();
+        if (length == 0) {
+            return;
+        }
+        if (scratch.length < length) {
+            scratch = new char[length];
+        }
+        buffer.getChars(0, length, scratch, 0);
+        out.write(scratch, 0, length);
+        buffer.setLength(0);
+    }
+}
@@ -0,0 +1,262 @@
+package com.documenteditor.adapter;
+
+import com.documenteditor.factory.*;
+import com.documenteditor.io.MappedFile;
+import com.documenteditor.model.*;
+import com.documenteditor.visitor.Visitor;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Read-only, lazily decoded view of an indexed binary document.
+ * Opening maps the file and reads only the header, trailer and title, so
+ * it takes the same time whatever the document's size. Elements are
+ * decoded through the offset index the first time they are accessed, a
+ * page of {@value #PAGE_SIZE} at a time, and only the file pages holding
+ * them are read from disk. Decoded pages are softly referenced: the
+ * garbage collector drops cold ones under memory pressure and they are
+ * decoded again if needed, so the same element may be returned as a new
+ * object after a while. Changes made to returned elements are not saved;
+ * load the document to edit it. The file must not be overwritten while it
+ * is mapped. Safe to read from several threads.
+ */
+public final class MappedDocument implements DocumentView {
+    private static final int PAGE_SHIFT = 8;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+    private final MappedFile file;
+    private final String title;
+    private final long stringIndexOffset;
+    private final int stringCount;
+    private final long elementIndexOffset;
+    private final int elementCount;
+    private final AtomicReferenceArray<SoftReference<DocumentElement[]>> pages;
+    private final List<DocumentElement> elements;
+
+    private MappedDocument(MappedFile file, long titleOffset, long stringIndexOffset, long elementIndexOffset,
+                           long trailerOffset) throws IOException {
+        this.file = file;
+        this.stringIndexOffset = stringIndexOffset;
+        this.stringCount = (int) ((elementIndexOffset - stringIndexOffset) / 8);
+        this.elementIndexOffset = elementIndexOffset;
+        this.elementCount = (int) ((trailerOffset - elementIndexOffset) / 8);
+        this.pages = new AtomicReferenceArray<>((elementCount + PAGE_SIZE - 1) >>> PAGE_SHIFT);
+        this.elements = new ElementList();
+        this.title = new Cursor(titleOffset).readString();
+    }
+
+    /**
+     * Map an indexed binary document.
+     * @param path The file to map
+     * @return The document, or null if the file is a binary document
+     *         without an index (saved in version 1)
+     * @throws IOException If the file cannot be mapped or is not a valid binary document
+     */
+    public static MappedDocument open(Path path) throws IOException {
+        MappedFile file = MappedFile.map(path);
+        byte[] magic = BinaryDocumentPersistence.MAGIC;
+        long size = file.size();
+        if (size < magic.length + 1 || !hasMagic(file, 0)) {
+            throw new IOException("Not a binary document: " + path);
+        }
+        int version = file.getUnsignedByte(magic.length);
+        if (version < 2) {
+            return null;
+        }
+        if (version > BinaryDocumentPersistence.VERSION) {
+            throw new IOException("Unsupported binary document version " + version);
+        }
+
+        long trailerOffset = size - BinaryDocumentPersistence.TRAILER_SIZE;
+        if (trailerOffset < magic.length + 1 || !hasMagic(file, size - magic.length)) {
+            throw new IOException("Binary document has no index, it may be truncated: " + path);
+        }
+        long titleOffset = file.getLong(trailerOffset);
+        long stringIndexOffset = file.getLong(trailerOffset + 8);
+        long elementIndexOffset = file.getLong(trailerOffset + 16);
+        if (titleOffset <= magic.length || titleOffset >= stringIndexOffset
+                || stringIndexOffset > elementIndexOffset || elementIndexOffset > trailerOffset
+                || (elementIndexOffset - stringIndexOffset) % 8 != 0 || (trailerOffset - elementIndexOffset) % 8 != 0) {
+            throw new IOException("Corrupt binary document index: " + path);
+        }
+        return new MappedDocument(file, titleOffset, stringIndexOffset, elementIndexOffset, trailerOffset);
+    }
+
+    @Override
+    public String getTitle() {
+        return title;
+    }
+
+    @Override
+    public List<DocumentElement> getElements() {
+        return elements;
+    }
+
+    @Override
+    public int getElementCount() {
+        return elementCount;
+    }
+
+    /**
+     * Get an element, decoding its page if it is not in memory.
+     * @param index The element position
+     * @return The element
+     */
+    public DocumentElement getElement(int index) {
+        if (index < 0 || index >= elementCount) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + elementCount);
+        }
+        int page = index >>> PAGE_SHIFT;
+        while (true) {
+            SoftReference<DocumentElement[]> ref = pages.get(page);
+            DocumentElement[] decoded = ref == null ? null : ref.get();
+            if (decoded != null) {
+                return decoded[index & (PAGE_SIZE - 1)];
+            }
+            // Publish one decoding per page so callers agree on element identity
+            DocumentElement[] fresh = decodePage(page);
+            if (pages.compareAndSet(page, ref, new SoftReference<>(fresh))) {
+                return fresh[index & (PAGE_SIZE - 1)];
+            }
+        }
+    }
+
+    @Override
+    public void accept(Visitor visitor) {
+        visitor.visitDocument(this);
+    }
+
+    @Override
+    public Object toSerializable() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("type", "Document");
+        data.put("title", title);
+
+        List<Object> childData = new ArrayList<>();
+        for (DocumentElement element : elements) {
+            childData.add(element.toSerializable());
+        }
+        data.put("elements", childData);
+
+        return data;
+    }
+
+    private DocumentElement[] decodePage(int page) {
+        int from = page << PAGE_SHIFT;
+        int to = Math.min(elementCount, from + PAGE_SIZE);
+        DocumentElement[] decoded = new DocumentElement[to - from];
+        try {
+            for (int i = from; i < to; i++) {
+                decoded[i - from] = new Cursor(file.getLong(elementIndexOffset + 8L * i)).readElement();
+            }
+        } catch (IOException | IndexOutOfBoundsException e) {
+            throw new UncheckedIOException(new IOException("Corrupt binary document element in page " + page, e));
+        }
+        return decoded;
+    }
+
+    private static boolean hasMagic(MappedFile file, long position) {
+        byte[] magic = BinaryDocumentPersistence.MAGIC;
+        byte[] found = new byte[magic.length];
+        file.get(position, found, 0, found.length);
+        return Arrays.equals(found, magic);
+    }
+
+    /**
+     * Sequential decoder positioned somewhere in the mapped file.
+     */
+    private final class Cursor {
+        private long position;
+
+        Cursor(long position) {
+            this.position = position;
+        }
+
+        DocumentElement readElement() throws IOException {
+            int tag = file.getUnsignedByte(position++);
+            return switch (tag) {
+                case BinaryDocumentPersistence.TAG_PARAGRAPH -> new ParagraphFactory()
+                        .setText(readString())
+                        .createElement();
+                case BinaryDocumentPersistence.TAG_HEADLINE -> {
+                    int level = readVarint();
+                    yield new HeadlineFactory()
+                            .setLevel(level)
+                            .setText(readString())
+                            .createElement();
+                }
+                case BinaryDocumentPersistence.TAG_IMAGE -> new ImageFactory()
+                        .setFilename(readString())
+                        .setWidth(readVarint())
+                        .setHeight(readVarint())
+                        .createElement();
+                default -> throw new IOException("Unknown element tag " + tag);
+            };
+        }
+
+        String readString() throws IOException {
+            int ref = readVarint();
+            if ((ref & 1) != 0) {
+                return readUtf8(ref >>> 1);
+            }
+            int index = ref >>> 1;
+            if (index >= stringCount) {
+                throw new IOException("String reference " + index + " out of range");
+            }
+            // Table entries are short, so decoding them again is cheap
+            Cursor entry = new Cursor(file.getLong(stringIndexOffset + 8L * index));
+            return entry.readUtf8(entry.readVarint());
+        }
+
+        private String readUtf8(int length) throws IOException {
+            if (length < 0) {
+                throw new IOException("Malformed string length");
+            }
+            if (position + length > file.size()) {
+                throw new IOException("String runs past the end of the file");
+            }
+            byte[] bytes = new byte[length];
+            file.get(position, bytes, 0, length);
+            position += length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private int readVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = file.getUnsignedByte(position++);
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+    }
+
+    /**
+     * The elements as a list; nothing is decoded until it is read.
+     */
+    private final class ElementList extends AbstractList<DocumentElement> implements RandomAccess {
+        @Override
+        public DocumentElement get(int index) {
+            return getElement(index);
+        }
+
+        @Override
+        public int size() {
+            return elementCount;
+        }
+    }
+}
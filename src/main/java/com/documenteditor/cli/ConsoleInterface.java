@@ -1,19 +1,23 @@
 package com.documenteditor.cli;
 
 import com.documenteditor.adapter.DocumentPersistence;
-import com.documenteditor.adapter.DocumentPersistenceAdapter;
+import com.documenteditor.adapter.FormatSelectingPersistence;
 import com.documenteditor.command.*;
 import com.documenteditor.exporter.*;
 import com.documenteditor.factory.*;
 import com.documenteditor.model.*;
 import com.documenteditor.observer.ConsoleObserver;
+import com.documenteditor.observer.LiveWordCounter;
 import com.documenteditor.strategy.BasicWordCountStrategy;
 import com.documenteditor.util.Logger;
+import com.documenteditor.visitor.FragmentCache;
 import com.documenteditor.visitor.RenderVisitor;
-import com.documenteditor.visitor.WordCountVisitor;
 import com.documenteditor.cloudstorage.*;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
 
@@ -29,13 +33,17 @@ public class ConsoleInterface {
     private Logger logger;
     private Scanner scanner;
     private ConsoleObserver observer;
+    private LiveWordCounter wordCounter;
+    private FragmentCache fragmentCache;
 
     public ConsoleInterface() {
         this.commandHistory = new CommandHistory();
-        this.persistence = new DocumentPersistenceAdapter();
+        this.persistence = new FormatSelectingPersistence();
         this.logger = Logger.getInstance();
         this.scanner = new Scanner(System.in);
         this.observer = new ConsoleObserver();
+        this.wordCounter = new LiveWordCounter(new BasicWordCountStrategy());
+        this.fragmentCache = new FragmentCache();
 
         // Initialize cloud storage with Proxy pattern for caching
         CloudStorageService mockStorage = new MockCloudStorageAdapter("Cloud Storage");
@@ -64,6 +72,7 @@ public class ConsoleInterface {
                     case "10" -> saveToCloud();
                     case "11" -> loadFromCloud();
                     case "12" -> listCloudDocuments();
+                    case "13" -> batchExport();
                     case "0" -> running = false;
                     default -> System.out.println("Invalid choice. Please try again.");
                 }
@@ -103,6 +112,7 @@ public class ConsoleInterface {
         System.out.println("│ 10. Save to Cloud Storage                                 │");
         System.out.println("│ 11. Load from Cloud Storage                               │");
         System.out.println("│ 12. List Cloud Documents                                  │");
+        System.out.println("│ 13. Batch Export Saved Documents                          │");
         System.out.println("│  0. Exit                                                  │");
         System.out.println("└───────────────────────────────────────────────────────────┘");
 
@@ -129,6 +139,8 @@ public class ConsoleInterface {
 
         currentDocument = new Document(title);
         currentDocument.attach(observer);
+        wordCounter.attachTo(currentDocument);
+        fragmentCache.attachTo(currentDocument);
 
         System.out.println("✓ Document created: " + title);
         logger.log("New document created: " + title);
@@ -231,14 +243,15 @@ public class ConsoleInterface {
             return;
         }
 
-        WordCountVisitor visitor = new WordCountVisitor(new BasicWordCountStrategy());
-        currentDocument.accept(visitor);
+        // Totals are kept current by the live counter, so no document pass is needed
+        long words = wordCounter.getWordCount();
 
         System.out.println("═══════════════════════════════════════");
-        System.out.println("  Word Count: " + visitor.getWordCount());
+        System.out.println("  Word Count: " + words);
+        System.out.println("  Characters: " + wordCounter.getCharacterCount());
         System.out.println("═══════════════════════════════════════");
 
-        logger.log("Word count performed: " + visitor.getWordCount() + " words");
+        logger.log("Word count performed: " + words + " words");
     }
 
     private void exportDocument() {
@@ -252,12 +265,14 @@ public class ConsoleInterface {
         System.out.println("2. HTML with CSS (Fancy)");
         System.out.println("3. Markdown");
         System.out.println("4. Plain Text");
-        System.out.println("5. PDF-Style Format [BONUS] (formatted text file)");
+        System.out.println("5. PDF [BONUS] (use a .txt name for the text layout)");
+        System.out.println("6. Minified HTML with CSS");
+        System.out.println("7. All formats (single pass)");
         System.out.print("Choice: ");
 
         String choice = scanner.nextLine().trim();
 
-        System.out.print("Enter output filename: ");
+        System.out.print(choice.equals("7") ? "Enter base filename (no extension): " : "Enter output filename: ");
         String filename = scanner.nextLine().trim();
 
         if (filename.isEmpty()) {
@@ -265,10 +280,18 @@ public class ConsoleInterface {
             return;
         }
 
+        if (choice.equals("7")) {
+            exportAllFormats(filename);
+            return;
+        }
+
         try {
             Exporter exporter = createExporter(choice);
             if (exporter != null) {
+                exporter.setFragmentCache(fragmentCache);
                 exporter.export(currentDocument, filename);
+                logger.log("Fragment cache: " + fragmentCache.getHits() + " hits, "
+                        + fragmentCache.getMisses() + " misses");
                 System.out.println("✓ Document exported to: " + filename);
             } else {
                 System.out.println("✗ Invalid export format.");
@@ -279,6 +302,62 @@ public class ConsoleInterface {
         }
     }
 
+    private void exportAllFormats(String baseName) {
+        MultiFormatExporter exporter = new MultiFormatExporter()
+                .addTarget(createExporter("1"), baseName + ".html")
+                .addTarget(createExporter("2"), baseName + "-styled.html")
+                .addTarget(createExporter("3"), baseName + ".md")
+                .addTarget(createExporter("4"), baseName + ".txt")
+                .addTarget(createExporter("5"), baseName + ".pdf.txt");
+
+        try {
+            exporter.export(currentDocument);
+            System.out.println("✓ Document exported to " + exporter.getTargetCount()
+                    + " formats: " + baseName + ".*");
+        } catch (IOException e) {
+            logger.error("Export failed", e);
+            System.out.println("✗ Export failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Export many saved documents to several formats in parallel.
+     */
+    private void batchExport() {
+        System.out.print("Enter directory or glob of saved documents: ");
+        String pattern = scanner.nextLine().trim();
+        System.out.print("Enter formats (html, styled, min, md, txt, pdf, pdf-text; comma separated): ");
+        String formatList = scanner.nextLine().trim();
+        System.out.print("Enter output directory: ");
+        String outputDirectory = scanner.nextLine().trim();
+
+        if (pattern.isEmpty() || formatList.isEmpty() || outputDirectory.isEmpty()) {
+            System.out.println("✗ Invalid input.");
+            return;
+        }
+
+        try {
+            List<ExportFormat> formats = new ArrayList<>();
+            for (String name : formatList.split(",")) {
+                formats.add(ExportFormat.fromName(name));
+            }
+            List<Path> inputs = BatchExporter.findInputs(pattern);
+            if (inputs.isEmpty()) {
+                System.out.println("✗ No saved documents match: " + pattern);
+                return;
+            }
+
+            BatchReport report = new BatchExporter(persistence, formats).export(inputs, Paths.get(outputDirectory));
+            System.out.println("✓ " + report);
+        } catch (IllegalArgumentException | IOException e) {
+            logger.error("Batch export failed", e);
+            System.out.println("✗ Batch export failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("✗ Batch export interrupted.");
+        }
+    }
+
     private Exporter createExporter(String choice) {
         return switch (choice) {
             case "1" -> new BasicHTMLExporter();
@@ -286,6 +365,7 @@ public class ConsoleInterface {
             case "3" -> new MarkdownDecorator(new BasicHTMLExporter());
             case "4" -> new PlainTextDecorator(new BasicHTMLExporter());
             case "5" -> new PDFDecorator(new BasicHTMLExporter());
+            case "6" -> new MinifyDecorator(new CSSDecorator(new BasicHTMLExporter()));
             default -> null;
         };
     }
@@ -312,7 +392,7 @@ public class ConsoleInterface {
             return;
         }
 
-        System.out.print("Enter filename to save: ");
+        System.out.print("Enter filename to save (.docb for compact binary): ");
         String filename = scanner.nextLine().trim();
 
         if (filename.isEmpty()) {
@@ -340,6 +420,8 @@ public class ConsoleInterface {
         if (loadedDoc != null) {
             currentDocument = loadedDoc;
             currentDocument.attach(observer);
+            wordCounter.attachTo(currentDocument);
+            fragmentCache.attachTo(currentDocument);
             System.out.println("✓ Document loaded successfully: " + currentDocument.getTitle());
         } else {
             System.out.println("✗ Failed to load document.");
@@ -402,6 +484,8 @@ public class ConsoleInterface {
             if (loadedDoc != null) {
                 currentDocument = loadedDoc;
                 currentDocument.attach(observer);
+                wordCounter.attachTo(currentDocument);
+                fragmentCache.attachTo(currentDocument);
                 System.out.println(
                         "✓ Document loaded from " + cloudStorage.getServiceName() + ": " + currentDocument.getTitle());
                 logger.log("Document downloaded from cloud: " + fileId);
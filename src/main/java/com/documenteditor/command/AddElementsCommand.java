@@ -0,0 +1,41 @@
+package com.documenteditor.command;
+
+import com.documenteditor.model.Document;
+import com.documenteditor.model.DocumentElement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * COMMAND PATTERN: Concrete Command
+ * Command to append a run of elements to the document in one step.
+ * Undo removes the whole run as a single unit.
+ */
+public class AddElementsCommand implements Command {
+    private Document document;
+    private List<DocumentElement> elements;
+    private int index;
+
+    public AddElementsCommand(Document document, List<? extends DocumentElement> elements) {
+        this.document = document;
+        this.elements = new ArrayList<>(elements);
+        this.index = -1;
+    }
+
+    @Override
+    public void execute() {
+        index = document.getElementCount();
+        document.addAll(index, elements);
+    }
+
+    @Override
+    public void undo() {
+        if (index >= 0) {
+            document.removeRange(index, index + elements.size());
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "Add " + elements.size() + " elements";
+    }
+}
@@ -0,0 +1,43 @@
+package com.documenteditor.command;
+
+import com.documenteditor.model.Document;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * COMMAND PATTERN: Composite (macro) Command
+ * Runs several commands inside one {@link Document#batch} so observers are
+ * notified once, and undoes them together as a single history entry.
+ */
+public class BatchCommand implements Command {
+    private Document document;
+    private List<Command> commands;
+
+    public BatchCommand(Document document, List<Command> commands) {
+        this.document = document;
+        this.commands = new ArrayList<>(commands);
+    }
+
+    @Override
+    public void execute() {
+        document.batch(doc -> {
+            for (Command command : commands) {
+                command.execute();
+            }
+        });
+    }
+
+    @Override
+    public void undo() {
+        document.batch(doc -> {
+            for (int i = commands.size() - 1; i >= 0; i--) {
+                commands.get(i).undo();
+            }
+        });
+    }
+
+    @Override
+    public String getDescription() {
+        return "Batch of " + commands.size() + " commands";
+    }
+}
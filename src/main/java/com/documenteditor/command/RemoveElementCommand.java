@@ -15,19 +15,22 @@ public class RemoveElementCommand implements Command {
     public RemoveElementCommand(Document document, DocumentElement element) {
         this.document = document;
         this.element = element;
-        // Store the index for proper restoration
-        this.index = document.getChildren().indexOf(element);
+        this.index = -1;
     }
     
     @Override
     public void execute() {
+        // Store the index for proper restoration
+        index = document.indexOf(element);
         document.remove(element);
     }
     
     @Override
     public void undo() {
         // Re-add at the original position
-        document.add(element);
+        if (index >= 0) {
+            document.add(index, element);
+        }
     }
     
     @Override
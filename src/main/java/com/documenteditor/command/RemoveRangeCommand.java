@@ -0,0 +1,40 @@
+package com.documenteditor.command;
+
+import com.documenteditor.model.Document;
+import com.documenteditor.model.DocumentElement;
+import java.util.List;
+
+/**
+ * COMMAND PATTERN: Concrete Command
+ * Command to remove a contiguous range of elements from the document.
+ * Undo restores the removed elements at their original position.
+ */
+public class RemoveRangeCommand implements Command {
+    private Document document;
+    private int from;
+    private int to;
+    private List<DocumentElement> removed;
+
+    public RemoveRangeCommand(Document document, int from, int to) {
+        this.document = document;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public void execute() {
+        removed = document.removeRange(from, to);
+    }
+
+    @Override
+    public void undo() {
+        if (removed != null) {
+            document.addAll(from, removed);
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "Remove elements " + from + " to " + to;
+    }
+}
@@ -1,11 +1,15 @@
 package com.documenteditor.exporter;
 
-import com.documenteditor.model.Document;
+import com.documenteditor.io.ChannelWriter;
+import com.documenteditor.model.DocumentView;
 import com.documenteditor.util.Logger;
+import com.documenteditor.visitor.ExportStage;
+import com.documenteditor.visitor.FragmentCache;
 import com.documenteditor.visitor.HTMLExportVisitor;
-import java.io.BufferedWriter;
-import java.io.FileWriter;
+import com.documenteditor.visitor.TextExportVisitor;
 import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
 
 /**
  * DECORATOR PATTERN: Concrete Component
@@ -13,25 +17,38 @@ import java.io.IOException;
  */
 public class BasicHTMLExporter implements Exporter {
     protected Logger logger;
+    protected FragmentCache fragmentCache;
     
     public BasicHTMLExporter() {
         this.logger = Logger.getInstance();
     }
     
     @Override
-    public void export(Document document, String filename) throws IOException {
-        String content = getContent(document);
-        
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))) {
-            writer.write(content);
+    public void setFragmentCache(FragmentCache cache) {
+        this.fragmentCache = cache;
+    }
+    
+    @Override
+    public void export(DocumentView document, String filename) throws IOException {
+        try (Writer writer = new ChannelWriter(filename)) {
+            export(document, writer);
         }
         
         logger.log("Document exported to HTML: " + filename);
     }
     
     @Override
-    public String getContent(Document document) {
+    public TextExportVisitor createVisitor(Writer writer, List<ExportStage> stages) {
+        HTMLExportVisitor visitor = new HTMLExportVisitor(writer);
+        visitor.setStages(stages);
+        visitor.setCache(fragmentCache);
+        return visitor;
+    }
+    
+    @Override
+    public String getContent(DocumentView document) {
         HTMLExportVisitor visitor = new HTMLExportVisitor();
+        visitor.setCache(fragmentCache);
         document.accept(visitor);
         return visitor.getHTML();
     }
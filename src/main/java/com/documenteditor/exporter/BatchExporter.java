@@ -0,0 +1,226 @@
+package com.documenteditor.exporter;
+
+import com.documenteditor.adapter.DeltaLogPersistence;
+import com.documenteditor.adapter.DocumentPersistence;
+import com.documenteditor.model.DocumentView;
+import com.documenteditor.util.Logger;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads saved documents and exports each of them to a set of formats,
+ * several documents at a time on a bounded worker pool.
+ * Submission blocks once the workers are busy and the queue is full, so
+ * only a bounded number of documents is held in memory however many files
+ * the batch names. The text formats of a document are written in a single
+ * pass; a document that fails to load or export is logged and counted, and
+ * does not stop the batch.
+ */
+public class BatchExporter {
+    private final DocumentPersistence persistence;
+    private final List<ExportFormat> formats;
+    private final int workers;
+    private final int queueCapacity;
+    private final Logger logger;
+
+    /**
+     * Create a batch exporter with one worker per processor.
+     * @param persistence Opens the saved documents
+     * @param formats The formats to write for every document
+     */
+    public BatchExporter(DocumentPersistence persistence, List<ExportFormat> formats) {
+        this(persistence, formats, Runtime.getRuntime().availableProcessors(),
+                2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param persistence Opens the saved documents
+     * @param formats The formats to write for every document
+     * @param workers The number of documents exported at the same time
+     * @param queueCapacity The number of documents waiting for a worker before submission blocks
+     */
+    public BatchExporter(DocumentPersistence persistence, List<ExportFormat> formats, int workers, int queueCapacity) {
+        if (formats.isEmpty()) {
+            throw new IllegalArgumentException("At least one export format is required");
+        }
+        this.persistence = persistence;
+        this.formats = List.copyOf(formats);
+        this.workers = Math.max(1, workers);
+        this.queueCapacity = Math.max(0, queueCapacity);
+        this.logger = Logger.getInstance();
+    }
+
+    /**
+     * Find the saved documents named by a directory (every regular file in
+     * it) or by a glob on the file name, e.g. {@code saves/*.json}.
+     * Change logs and temporary files kept next to saved documents are
+     * skipped.
+     * @param pattern A directory or a glob
+     * @return The matching files in name order
+     * @throws IOException If the directory cannot be listed
+     */
+    public static List<Path> findInputs(String pattern) throws IOException {
+        Path path = Paths.get(pattern);
+        Path directory;
+        String glob;
+        if (Files.isDirectory(path)) {
+            directory = path;
+            glob = "*";
+        } else {
+            directory = path.getParent() == null ? Paths.get(".") : path.getParent();
+            glob = path.getFileName().toString();
+        }
+
+        List<Path> inputs = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file) && !DeltaLogPersistence.isSidecar(file.getFileName().toString())) {
+                    inputs.add(file);
+                }
+            }
+        }
+        inputs.sort(null);
+        return inputs;
+    }
+
+    /**
+     * Export every input to every format. Output files are named after the
+     * input with its extension replaced by the format's suffix; inputs that
+     * would share a name, such as {@code a.json} and {@code a.docb}, keep
+     * their extension instead, plus a number if that is still taken.
+     * @param inputs The saved documents
+     * @param outputDirectory Where to write the exports (created if missing)
+     * @return The throughput summary
+     * @throws IOException If the output directory cannot be created
+     * @throws InterruptedException If interrupted while waiting for the workers
+     */
+    public BatchReport export(List<Path> inputs, Path outputDirectory) throws IOException, InterruptedException {
+        Files.createDirectories(outputDirectory);
+        logger.log("Starting batch export of " + inputs.size() + " documents with " + workers + " workers");
+
+        List<String> baseNames = outputNames(inputs);
+        long[] latencies = new long[inputs.size()];
+        AtomicInteger failures = new AtomicInteger();
+        AtomicLong bytesWritten = new AtomicLong();
+        Semaphore slots = new Semaphore(workers + queueCapacity);
+        ExecutorService pool = Executors.newFixedThreadPool(workers, task -> {
+            Thread thread = new Thread(task, "batch-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < inputs.size(); i++) {
+                int slot = i;
+                Path input = inputs.get(i);
+                String baseName = baseNames.get(i);
+                slots.acquire();
+                pool.execute(() -> {
+                    try {
+                        long begin = System.nanoTime();
+                        bytesWritten.addAndGet(exportOne(input, baseName, outputDirectory));
+                        latencies[slot] = System.nanoTime() - begin;
+                    } catch (Exception e) {
+                        logger.error("Batch export failed for " + input, e);
+                        latencies[slot] = -1;
+                        failures.incrementAndGet();
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long[] succeeded = Arrays.stream(latencies).filter(latency -> latency >= 0).toArray();
+        BatchReport report = new BatchReport(inputs.size(), failures.get(), formats.size(),
+                elapsed, bytesWritten.get(), succeeded);
+        logger.log(report.toString());
+        return report;
+    }
+
+    /**
+     * Load one document and write all of its formats.
+     * @return The number of bytes written
+     */
+    private long exportOne(Path input, String baseName, Path outputDirectory) throws IOException {
+        DocumentView document = persistence.open(input.toString());
+        if (document == null) {
+            throw new IOException("Could not open " + input);
+        }
+
+        List<Path> outputs = new ArrayList<>(formats.size());
+        MultiFormatExporter textFormats = new MultiFormatExporter();
+        for (ExportFormat format : formats) {
+            Path output = outputDirectory.resolve(baseName + format.getSuffix());
+            outputs.add(output);
+            if (format.isText()) {
+                textFormats.addTarget(format.createExporter(), output.toString());
+            } else {
+                format.createExporter().export(document, output.toString());
+            }
+        }
+        if (textFormats.getTargetCount() > 0) {
+            textFormats.export(document);
+        }
+
+        long bytes = 0;
+        for (Path output : outputs) {
+            bytes += Files.size(output);
+        }
+        return bytes;
+    }
+
+    /**
+     * Pick a distinct output base name for every input, so that no two
+     * workers write the same file. Names are compared ignoring case, as
+     * they may be on the file system.
+     */
+    private List<String> outputNames(List<Path> inputs) {
+        Set<String> taken = new HashSet<>();
+        for (Path input : inputs) {
+            taken.add(baseName(input).toLowerCase(Locale.ROOT));
+        }
+        Set<String> used = new HashSet<>();
+        List<String> names = new ArrayList<>(inputs.size());
+        for (Path input : inputs) {
+            String name = baseName(input);
+            if (!used.add(name.toLowerCase(Locale.ROOT))) {
+                String fallback = input.getFileName().toString();
+                name = fallback;
+                for (int n = 2; taken.contains(name.toLowerCase(Locale.ROOT))
+                        || !used.add(name.toLowerCase(Locale.ROOT)); n++) {
+                    name = fallback + "-" + n;
+                }
+                logger.log("Batch export: " + input + " is exported as " + name + " to avoid a name clash");
+            }
+            names.add(name);
+        }
+        return names;
+    }
+
+    private static String baseName(Path input) {
+        String name = input.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+}
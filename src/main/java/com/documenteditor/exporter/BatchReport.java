@@ -0,0 +1,75 @@
+package com.documenteditor.exporter;
+
+import java.util.Arrays;
+
+/**
+ * Throughput summary of a batch export: documents per second, output
+ * megabytes per second and per-document latency percentiles.
+ * Latency covers loading a document and writing all of its formats.
+ */
+public class BatchReport {
+    private final int documents;
+    private final int failures;
+    private final int formats;
+    private final long elapsedNanos;
+    private final long bytesWritten;
+    private final long[] latencies;
+
+    BatchReport(int documents, int failures, int formats, long elapsedNanos, long bytesWritten, long[] latencies) {
+        this.documents = documents;
+        this.failures = failures;
+        this.formats = formats;
+        this.elapsedNanos = elapsedNanos;
+        this.bytesWritten = bytesWritten;
+        this.latencies = latencies.clone();
+        Arrays.sort(this.latencies);
+    }
+
+    public int getDocumentCount() {
+        return documents;
+    }
+
+    public int getFailureCount() {
+        return failures;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public double getElapsedSeconds() {
+        return elapsedNanos / 1e9;
+    }
+
+    public double getDocumentsPerSecond() {
+        return elapsedNanos == 0 ? 0 : (documents - failures) / getElapsedSeconds();
+    }
+
+    public double getMegabytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytesWritten / (1024.0 * 1024.0) / getElapsedSeconds();
+    }
+
+    /**
+     * Get a latency percentile using the nearest-rank method.
+     * @param percentile The percentile, between 0 and 100
+     * @return The latency in milliseconds, or 0 if nothing was exported
+     */
+    public double getLatencyMillis(double percentile) {
+        if (latencies.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * latencies.length);
+        return latencies[Math.max(0, Math.min(latencies.length - 1, rank - 1))] / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "Batch export: %d documents (%d failed) x %d formats in %.2f s%n"
+                        + "  Throughput: %.1f docs/s, %.2f MB/s (%.2f MB written)%n"
+                        + "  Latency: p50 %.2f ms, p99 %.2f ms, max %.2f ms",
+                documents, failures, formats, getElapsedSeconds(),
+                getDocumentsPerSecond(), getMegabytesPerSecond(), bytesWritten / (1024.0 * 1024.0),
+                getLatencyMillis(50), getLatencyMillis(99), getLatencyMillis(100));
+    }
+}
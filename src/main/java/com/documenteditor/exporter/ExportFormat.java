@@ -0,0 +1,70 @@
+package com.documenteditor.exporter;
+
+/**
+ * The export formats offered by name, e.g. on the command line, with the
+ * exporter chain and file suffix for each.
+ */
+public enum ExportFormat {
+    HTML("html", ".html"),
+    STYLED_HTML("styled", "-styled.html"),
+    MINIFIED_HTML("min", ".min.html"),
+    MARKDOWN("md", ".md"),
+    TEXT("txt", ".txt"),
+    PDF("pdf", ".pdf"),
+    PDF_TEXT("pdf-text", ".pdf.txt");
+
+    private final String name;
+    private final String suffix;
+
+    ExportFormat(String name, String suffix) {
+        this.name = name;
+        this.suffix = suffix;
+    }
+
+    /**
+     * Build a fresh exporter chain for this format.
+     * @return A new exporter
+     */
+    public Exporter createExporter() {
+        return switch (this) {
+            case HTML -> new BasicHTMLExporter();
+            case STYLED_HTML -> new CSSDecorator(new BasicHTMLExporter());
+            case MINIFIED_HTML -> new MinifyDecorator(new CSSDecorator(new BasicHTMLExporter()));
+            case MARKDOWN -> new MarkdownDecorator(new BasicHTMLExporter());
+            case TEXT -> new PlainTextDecorator(new BasicHTMLExporter());
+            case PDF, PDF_TEXT -> new PDFDecorator(new BasicHTMLExporter());
+        };
+    }
+
+    /**
+     * Whether the format is text that can share a single-pass export.
+     * The binary PDF is written by its own visitor.
+     * @return true for text formats
+     */
+    public boolean isText() {
+        return this != PDF;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSuffix() {
+        return suffix;
+    }
+
+    /**
+     * Look up a format by its short name.
+     * @param name The name, e.g. "html" or "md"
+     * @return The format
+     * @throws IllegalArgumentException If no format has that name
+     */
+    public static ExportFormat fromName(String name) {
+        for (ExportFormat format : values()) {
+            if (format.name.equalsIgnoreCase(name.trim())) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown export format: " + name);
+    }
+}
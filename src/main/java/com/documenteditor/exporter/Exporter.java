@@ -1,7 +1,15 @@
 package com.documenteditor.exporter;
 
-import com.documenteditor.model.Document;
+import com.documenteditor.model.DocumentView;
+import com.documenteditor.visitor.ExportStage;
+import com.documenteditor.visitor.FragmentCache;
+import com.documenteditor.visitor.ParallelExport;
+import com.documenteditor.visitor.TextExportVisitor;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * DECORATOR PATTERN: Component interface
@@ -10,16 +18,68 @@ import java.io.IOException;
 public interface Exporter {
     /**
      * Export the document to a file.
+     * Accepts a live document or an immutable snapshot taken for a background export.
      * @param document The document to export
      * @param filename The output filename
      * @throws IOException If an I/O error occurs
      */
-    void export(Document document, String filename) throws IOException;
+    void export(DocumentView document, String filename) throws IOException;
+    
+    /**
+     * Stream the exported content to a writer.
+     * Output is written element by element, so memory use does not grow with
+     * the size of the document. The writer is not closed.
+     * @param document The document to export
+     * @param writer The destination
+     * @throws IOException If an I/O error occurs
+     */
+    default void export(DocumentView document, Writer writer) throws IOException {
+        try {
+            document.accept(createVisitor(writer, new ArrayList<>()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    /**
+     * Stream the exported content to a writer, rendering the elements on
+     * several threads. The output is the same as {@link #export(DocumentView, Writer)}.
+     * @param document The document to export
+     * @param writer The destination
+     * @param parallel The parallel export settings (executor, chunk size, chunks in flight)
+     * @throws IOException If an I/O error occurs
+     */
+    default void export(DocumentView document, Writer writer, ParallelExport parallel) throws IOException {
+        try {
+            parallel.export(document, createVisitor(writer, new ArrayList<>()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    /**
+     * Create the visitor that renders this exporter's format, configured
+     * with the given pipeline of stages.
+     * Decorators add their own stage to the front of the list and pass it
+     * on, so the innermost decorator's stage runs first.
+     * @param writer The destination, or null to render into the visitor's buffer
+     * @param stages The stages collected from the decorators around this exporter
+     * @return A visitor ready to export one document
+     */
+    TextExportVisitor createVisitor(Writer writer, List<ExportStage> stages);
+    
+    /**
+     * Reuse rendered element fragments between exports.
+     * Exporters that do not render elements themselves ignore the cache.
+     * @param cache The cache to use, or null to render every element
+     */
+    default void setFragmentCache(FragmentCache cache) {
+    }
     
     /**
      * Get the exported content as a string.
      * @param document The document to export
      * @return The exported content
      */
-    String getContent(Document document);
+    String getContent(DocumentView document);
 }
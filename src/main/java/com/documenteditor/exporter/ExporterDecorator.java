@@ -1,26 +1,81 @@
 package com.documenteditor.exporter;
 
-import com.documenteditor.model.Document;
+import com.documenteditor.io.ChannelWriter;
+import com.documenteditor.model.DocumentView;
+import com.documenteditor.visitor.ExportStage;
+import com.documenteditor.visitor.FragmentCache;
+import com.documenteditor.visitor.TextExportVisitor;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
 
 /**
  * DECORATOR PATTERN: Decorator base class
  * Abstract decorator for adding functionality to exporters.
+ * A decorator that changes the output contributes an {@link ExportStage};
+ * stages are chained into the wrapped exporter's stream, so stacking
+ * decorators never buffers or rescans the whole document.
  */
 public abstract class ExporterDecorator implements Exporter {
     protected Exporter wrappedExporter;
+    protected FragmentCache fragmentCache;
     
     public ExporterDecorator(Exporter exporter) {
         this.wrappedExporter = exporter;
     }
     
+    /**
+     * Get the stage this decorator adds to the export pipeline.
+     * @return The stage, or null if this decorator does not change the output
+     */
+    protected ExportStage getStage() {
+        return null;
+    }
+    
+    /**
+     * Use the cache here and in every exporter this one wraps.
+     */
+    @Override
+    public void setFragmentCache(FragmentCache cache) {
+        this.fragmentCache = cache;
+        if (wrappedExporter != null) {
+            wrappedExporter.setFragmentCache(cache);
+        }
+    }
+    
+    @Override
+    public void export(DocumentView document, String filename) throws IOException {
+        if (getStage() == null) {
+            wrappedExporter.export(document, filename);
+            return;
+        }
+        try (Writer writer = new ChannelWriter(filename)) {
+            export(document, writer);
+        }
+    }
+    
     @Override
-    public void export(Document document, String filename) throws IOException {
-        wrappedExporter.export(document, filename);
+    public TextExportVisitor createVisitor(Writer writer, List<ExportStage> stages) {
+        ExportStage stage = getStage();
+        if (stage != null) {
+            stages.add(0, stage);
+        }
+        return wrappedExporter.createVisitor(writer, stages);
     }
     
     @Override
-    public String getContent(Document document) {
-        return wrappedExporter.getContent(document);
+    public String getContent(DocumentView document) {
+        if (getStage() == null) {
+            return wrappedExporter.getContent(document);
+        }
+        StringWriter writer = new StringWriter();
+        try {
+            export(document, writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
     }
 }
@@ -1,7 +1,14 @@
 package com.documenteditor.exporter;
 
-import com.documenteditor.model.*;
+import com.documenteditor.io.ChannelWriter;
+import com.documenteditor.model.DocumentView;
 import com.documenteditor.util.Logger;
+import com.documenteditor.visitor.ExportStage;
+import com.documenteditor.visitor.MarkdownExportVisitor;
+import com.documenteditor.visitor.TextExportVisitor;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
 
 /**
  * DECORATOR PATTERN: Concrete Decorator
@@ -16,39 +23,29 @@ public class MarkdownDecorator extends ExporterDecorator {
     }
 
     @Override
-    public String getContent(Document document) {
+    public String getContent(DocumentView document) {
         // Override completely to provide Markdown format
-        StringBuilder md = new StringBuilder();
-
-        md.append("# ").append(document.getTitle()).append("\n\n");
-
-        for (DocumentElement element : document.getChildren()) {
-            if (element instanceof Headline) {
-                Headline h = (Headline) element;
-                md.append("#".repeat(h.getLevel() + 1)).append(" ");
-                md.append(h.getText()).append("\n\n");
-            } else if (element instanceof Paragraph) {
-                Paragraph p = (Paragraph) element;
-                md.append(p.getText()).append("\n\n");
-            } else if (element instanceof Image) {
-                Image img = (Image) element;
-                md.append("![").append(img.getFilename()).append("](");
-                md.append(img.getFilename()).append(")\n\n");
-            }
-        }
-
-        return md.toString();
+        MarkdownExportVisitor visitor = new MarkdownExportVisitor();
+        visitor.setCache(fragmentCache);
+        document.accept(visitor);
+        return visitor.getMarkdown();
     }
 
     @Override
-    public void export(Document document, String filename) throws java.io.IOException {
+    public void export(DocumentView document, String filename) throws IOException {
         // Write Markdown content directly (not HTML)
-        String content = getContent(document);
-
-        try (java.io.BufferedWriter writer = new java.io.BufferedWriter(new java.io.FileWriter(filename))) {
-            writer.write(content);
+        try (Writer writer = new ChannelWriter(filename)) {
+            export(document, writer);
         }
 
         logger.log("Document exported to Markdown: " + filename);
     }
+
+    @Override
+    public TextExportVisitor createVisitor(Writer writer, List<ExportStage> stages) {
+        MarkdownExportVisitor visitor = new MarkdownExportVisitor(writer);
+        visitor.setStages(stages);
+        visitor.setCache(fragmentCache);
+        return visitor;
+    }
 }
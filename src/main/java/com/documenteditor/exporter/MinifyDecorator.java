@@ -0,0 +1,78 @@
+package com.documenteditor.exporter;
+
+import com.documenteditor.model.DocumentView;
+import com.documenteditor.util.Logger;
+import com.documenteditor.visitor.ExportStage;
+import java.io.IOException;
+
+/**
+ * DECORATOR PATTERN: Concrete Decorator
+ * Minifies HTML export as it streams.
+ * Each part of the page is compacted in place before it is written:
+ * white space between tags is dropped and other runs of white space are
+ * collapsed to a single space. Quoted attribute values are left untouched.
+ * Wrap it around other decorators to minify their output too, e.g.
+ * {@code new MinifyDecorator(new CSSDecorator(new BasicHTMLExporter()))}.
+ */
+public class MinifyDecorator extends ExporterDecorator implements ExportStage {
+
+    public MinifyDecorator(Exporter exporter) {
+        super(exporter);
+    }
+
+    @Override
+    protected ExportStage getStage() {
+        return this;
+    }
+
+    @Override
+    public void process(StringBuilder out, int start) {
+        int length = out.length();
+        int write = start;
+        boolean inTag = false;
+        char quote = 0;
+
+        for (int read = start; read < length; ) {
+            char c = out.charAt(read);
+            if (quote == 0 && isSpace(c)) {
+                int end = read + 1;
+                while (end < length && isSpace(out.charAt(end))) {
+                    end++;
+                }
+                // Part boundaries always fall between tags
+                char before = write > start ? out.charAt(write - 1) : '>';
+                char after = end < length ? out.charAt(end) : '<';
+                if (inTag || before != '>' || after != '<') {
+                    out.setCharAt(write++, ' ');
+                }
+                read = end;
+                continue;
+            }
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '<') {
+                inTag = true;
+            } else if (c == '>') {
+                inTag = false;
+            } else if (inTag && (c == '"' || c == '\'')) {
+                quote = c;
+            }
+            out.setCharAt(write++, c);
+            read++;
+        }
+        out.setLength(write);
+    }
+
+    private static boolean isSpace(char c) {
+        // Only HTML white space; no-break spaces are content
+        return c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == '\f';
+    }
+
+    @Override
+    public void export(DocumentView document, String filename) throws IOException {
+        super.export(document, filename);
+        Logger.getInstance().log("Document exported to minified HTML: " + filename);
+    }
+}
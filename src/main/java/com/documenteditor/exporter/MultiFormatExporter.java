@@ -0,0 +1,110 @@
+package com.documenteditor.exporter;
+
+import com.documenteditor.io.ChannelWriter;
+import com.documenteditor.model.Document;
+import com.documenteditor.model.DocumentElement;
+import com.documenteditor.model.DocumentView;
+import com.documenteditor.util.Logger;
+import com.documenteditor.visitor.TextExportVisitor;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exports one document to several formats in a single traversal.
+ * Each target is an ordinary exporter chain; the element list is walked
+ * once and every element is handed to all of the targets' visitors in turn,
+ * so every format streams to its own writer at the same time.
+ */
+public class MultiFormatExporter {
+    private final List<Exporter> exporters;
+    private final List<String> filenames;
+    private final Logger logger;
+
+    public MultiFormatExporter() {
+        this.exporters = new ArrayList<>();
+        this.filenames = new ArrayList<>();
+        this.logger = Logger.getInstance();
+    }
+
+    /**
+     * Add an output format.
+     * @param exporter The exporter chain that defines the format
+     * @param filename The file to write this format to
+     * @return This exporter, for chaining
+     */
+    public MultiFormatExporter addTarget(Exporter exporter, String filename) {
+        exporters.add(exporter);
+        filenames.add(filename);
+        return this;
+    }
+
+    /**
+     * Export the document to every target file.
+     * @param document The document to export
+     * @throws IOException If any file cannot be written
+     */
+    public void export(DocumentView document) throws IOException {
+        List<Writer> writers = new ArrayList<>(filenames.size());
+        try {
+            for (String filename : filenames) {
+                writers.add(new ChannelWriter(filename));
+            }
+            export(document, writers);
+        } finally {
+            IOException failure = null;
+            for (Writer writer : writers) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    failure = failure == null ? e : failure;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+        logger.log("Document exported to " + filenames.size() + " formats: " + String.join(", ", filenames));
+    }
+
+    /**
+     * Export the document to the given writers, one per target in the order
+     * the targets were added. The writers are not closed.
+     * @param document The document to export
+     * @param writers The destinations
+     * @throws IOException If any writer fails
+     */
+    public void export(DocumentView document, List<? extends Writer> writers) throws IOException {
+        if (writers.size() != exporters.size()) {
+            throw new IllegalArgumentException("Expected " + exporters.size() + " writers, got " + writers.size());
+        }
+        // Traverse an immutable view so every format sees the same elements
+        DocumentView view = document instanceof Document ? ((Document) document).snapshot() : document;
+
+        TextExportVisitor[] visitors = new TextExportVisitor[exporters.size()];
+        for (int i = 0; i < visitors.length; i++) {
+            visitors[i] = exporters.get(i).createVisitor(writers.get(i), new ArrayList<>());
+        }
+        try {
+            for (TextExportVisitor visitor : visitors) {
+                visitor.begin(view);
+            }
+            for (DocumentElement element : view.getElements()) {
+                for (TextExportVisitor visitor : visitors) {
+                    visitor.exportElement(element);
+                }
+            }
+            for (TextExportVisitor visitor : visitors) {
+                visitor.end();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public int getTargetCount() {
+        return exporters.size();
+    }
+}
@@ -1,21 +1,30 @@
 package com.documenteditor.exporter;
 
-import com.documenteditor.model.Document;
+import com.documenteditor.io.ChannelOutputStream;
+import com.documenteditor.io.ChannelWriter;
+import com.documenteditor.model.DocumentView;
 import com.documenteditor.util.Logger;
+import com.documenteditor.visitor.ExportStage;
+import com.documenteditor.visitor.PDFStreamVisitor;
 import com.documenteditor.visitor.SimplePDFExportVisitor;
+import com.documenteditor.visitor.TextExportVisitor;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
 
 /**
- * Decorator Pattern: Adds PDF-style export capability.
- * Wraps any exporter and provides PDF-like document generation.
+ * Decorator Pattern: Adds PDF export capability.
+ * Wraps any exporter and provides PDF document generation.
  * 
  * This decorator adds PDF export functionality without modifying existing exporters.
- * by adding PDF export functionality without modifying existing exporters.
  * 
- * Note: Uses SimplePDFExportVisitor for no-dependency implementation.
- * For production, replace with PDFExportVisitor using iText library (see
- * pom.xml).
+ * Files are written as real PDF by {@link PDFStreamVisitor}, a
+ * no-dependency writer that streams one page at a time. Filenames ending in
+ * .txt get the PDF-style text layout of SimplePDFExportVisitor instead,
+ * which is also what the character-stream methods produce.
  */
 public class PDFDecorator extends ExporterDecorator {
 
@@ -24,23 +33,28 @@ public class PDFDecorator extends ExporterDecorator {
     }
 
     @Override
-    public void export(Document document, String filename) throws IOException {
+    public void export(DocumentView document, String filename) throws IOException {
         Logger logger = Logger.getInstance();
 
-        // Note: SimplePDFExportVisitor creates formatted text, not binary PDF
-        // For real PDFs, use PDFExportVisitor.java.maven_only with Maven build
+        boolean textLayout = filename.endsWith(".txt");
         String pdfFilename = filename;
-        if (!filename.endsWith(".pdf") && !filename.endsWith(".txt")) {
+        if (!textLayout && !filename.endsWith(".pdf")) {
             pdfFilename = filename + ".pdf";
         }
 
         logger.log("Starting PDF export to: " + pdfFilename);
 
         try {
-            // Use Visitor pattern to generate PDF-style document
-            SimplePDFExportVisitor pdfVisitor = new SimplePDFExportVisitor(pdfFilename);
-            document.accept(pdfVisitor);
-            pdfVisitor.close();
+            if (textLayout) {
+                try (Writer writer = new ChannelWriter(pdfFilename)) {
+                    // Use Visitor pattern to stream the PDF-style text document
+                    export(document, writer);
+                }
+            } else {
+                try (OutputStream out = new ChannelOutputStream(pdfFilename)) {
+                    export(document, out);
+                }
+            }
 
             logger.log("PDF export completed successfully: " + pdfFilename);
         } catch (Exception e) {
@@ -49,10 +63,32 @@ public class PDFDecorator extends ExporterDecorator {
         }
     }
 
+    /**
+     * Stream the document as a binary PDF.
+     * @param document The document to export
+     * @param out The destination; flushed but not closed
+     * @throws IOException If an I/O error occurs
+     */
+    public void export(DocumentView document, OutputStream out) throws IOException {
+        try {
+            document.accept(new PDFStreamVisitor(out));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public TextExportVisitor createVisitor(Writer writer, List<ExportStage> stages) {
+        SimplePDFExportVisitor visitor = new SimplePDFExportVisitor(writer);
+        visitor.setStages(stages);
+        visitor.setCache(fragmentCache);
+        return visitor;
+    }
+
     @Override
-    public String getContent(Document document) {
-        // PDF is binary/formatted, return metadata instead
+    public String getContent(DocumentView document) {
+        // PDF is binary, return metadata instead
         return "PDF Document: " + document.getTitle() +
-                " (Elements: " + document.getChildren().size() + ")";
+                " (Elements: " + document.getElementCount() + ")";
     }
 }
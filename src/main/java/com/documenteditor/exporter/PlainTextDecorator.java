@@ -1,7 +1,14 @@
 package com.documenteditor.exporter;
 
-import com.documenteditor.model.*;
+import com.documenteditor.io.ChannelWriter;
+import com.documenteditor.model.DocumentView;
 import com.documenteditor.util.Logger;
+import com.documenteditor.visitor.ExportStage;
+import com.documenteditor.visitor.PlainTextExportVisitor;
+import com.documenteditor.visitor.TextExportVisitor;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
 
 /**
  * DECORATOR PATTERN: Concrete Decorator
@@ -16,41 +23,29 @@ public class PlainTextDecorator extends ExporterDecorator {
     }
 
     @Override
-    public String getContent(Document document) {
+    public String getContent(DocumentView document) {
         // Override completely to provide plain text format
-        StringBuilder text = new StringBuilder();
-
-        text.append(document.getTitle().toUpperCase()).append("\n");
-        text.append("=".repeat(document.getTitle().length())).append("\n\n");
-
-        for (DocumentElement element : document.getChildren()) {
-            if (element instanceof Headline) {
-                Headline h = (Headline) element;
-                text.append("\n").append(h.getText().toUpperCase()).append("\n");
-                text.append("-".repeat(h.getText().length())).append("\n\n");
-            } else if (element instanceof Paragraph) {
-                Paragraph p = (Paragraph) element;
-                text.append(p.getText()).append("\n\n");
-            } else if (element instanceof Image) {
-                Image img = (Image) element;
-                text.append("[IMAGE: ").append(img.getFilename());
-                text.append(" (").append(img.getWidth()).append("x");
-                text.append(img.getHeight()).append(")]\n\n");
-            }
-        }
-
-        return text.toString();
+        PlainTextExportVisitor visitor = new PlainTextExportVisitor();
+        visitor.setCache(fragmentCache);
+        document.accept(visitor);
+        return visitor.getText();
     }
 
     @Override
-    public void export(Document document, String filename) throws java.io.IOException {
+    public void export(DocumentView document, String filename) throws IOException {
         // Write plain text content directly (not HTML)
-        String content = getContent(document);
-
-        try (java.io.BufferedWriter writer = new java.io.BufferedWriter(new java.io.FileWriter(filename))) {
-            writer.write(content);
+        try (Writer writer = new ChannelWriter(filename)) {
+            export(document, writer);
         }
 
         logger.log("Document exported to Plain Text: " + filename);
     }
+
+    @Override
+    public TextExportVisitor createVisitor(Writer writer, List<ExportStage> stages) {
+        PlainTextExportVisitor visitor = new PlainTextExportVisitor(writer);
+        visitor.setStages(stages);
+        visitor.setCache(fragmentCache);
+        return visitor;
+    }
 }
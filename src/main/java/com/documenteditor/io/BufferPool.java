@@ -0,0 +1,53 @@
+package com.documenteditor.io;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide pool of direct byte buffers, grouped by capacity.
+ * Direct buffers are expensive to allocate and are only reclaimed by the
+ * garbage collector, so files share a small set of them instead of
+ * allocating one per file. The number of idle buffers kept per capacity is
+ * bounded; extra buffers are simply dropped.
+ */
+final class BufferPool {
+    private static final int MAX_IDLE_PER_SIZE = 16;
+
+    private static final ConcurrentHashMap<Integer, Idle> POOLS = new ConcurrentHashMap<>();
+
+    private BufferPool() {
+    }
+
+    /**
+     * Take a cleared direct buffer of the given capacity.
+     */
+    static ByteBuffer acquire(int capacity) {
+        Idle idle = POOLS.get(capacity);
+        ByteBuffer buffer = idle == null ? null : idle.buffers.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(capacity);
+        }
+        idle.count.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Return a buffer for reuse. It must not be used afterwards.
+     */
+    static void release(ByteBuffer buffer) {
+        Idle idle = POOLS.computeIfAbsent(buffer.capacity(), size -> new Idle());
+        if (idle.count.incrementAndGet() <= MAX_IDLE_PER_SIZE) {
+            idle.buffers.offer(buffer);
+        } else {
+            idle.count.decrementAndGet();
+        }
+    }
+
+    private static final class Idle {
+        final ConcurrentLinkedQueue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+        final AtomicInteger count = new AtomicInteger();
+    }
+}
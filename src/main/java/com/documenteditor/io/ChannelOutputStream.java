@@ -0,0 +1,117 @@
+package com.documenteditor.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Buffered byte output to a file through a {@link FileChannel}.
+ * Writes are collected in a pooled direct buffer and handed to the channel
+ * one full buffer at a time, so the number of write calls is the file size
+ * divided by the buffer size. Not thread-safe.
+ */
+public class ChannelOutputStream extends OutputStream {
+    private final FileChannel channel;
+    private final ForcePolicy forcePolicy;
+    private ByteBuffer buffer;
+
+    /**
+     * Create or truncate a file and open it for writing.
+     * @param path The file to write
+     * @param settings The buffer size and force policy
+     * @throws IOException If the file cannot be opened
+     */
+    public ChannelOutputStream(Path path, OutputSettings settings) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.forcePolicy = settings.getForcePolicy();
+        this.buffer = BufferPool.acquire(settings.getBufferSize());
+    }
+
+    /**
+     * Open a file with the default settings.
+     * @param filename The file to write
+     * @throws IOException If the file cannot be opened
+     */
+    public ChannelOutputStream(String filename) throws IOException {
+        this(Paths.get(filename), OutputSettings.getDefault());
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        ensureOpen();
+        while (length > 0) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            int n = Math.min(length, buffer.remaining());
+            buffer.put(bytes, offset, n);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * Get the number of bytes written so far, i.e. the file offset the
+     * next byte will be written at.
+     * @return The current position
+     * @throws IOException If the stream is closed
+     */
+    public long getPosition() throws IOException {
+        ensureOpen();
+        return channel.position() + buffer.position();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        drain();
+        if (forcePolicy == ForcePolicy.ON_FLUSH) {
+            channel.force(false);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            drain();
+            if (forcePolicy != ForcePolicy.NONE) {
+                channel.force(false);
+            }
+        } finally {
+            BufferPool.release(buffer);
+            buffer = null;
+            channel.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (buffer == null) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.documenteditor.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Buffered UTF-8 text output to a file through a {@link FileChannel}.
+ * Unlike FileWriter, the charset is always UTF-8 rather than the platform
+ * default. Characters are encoded by a per-thread reused encoder straight
+ * into a pooled direct buffer, which goes to the channel one full buffer at
+ * a time. Malformed surrogates are written as '?'. Not thread-safe.
+ */
+public class ChannelWriter extends Writer {
+    private static final ThreadLocal<CharsetEncoder> ENCODER = ThreadLocal.withInitial(() ->
+            StandardCharsets.UTF_8.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE));
+
+    private final FileChannel channel;
+    private final ForcePolicy forcePolicy;
+    private final CharBuffer chars;
+    private ByteBuffer bytes;
+
+    /**
+     * Create or truncate a file and open it for writing.
+     * @param path The file to write
+     * @param settings The buffer size and force policy
+     * @throws IOException If the file cannot be opened
+     */
+    public ChannelWriter(Path path, OutputSettings settings) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.forcePolicy = settings.getForcePolicy();
+        this.bytes = BufferPool.acquire(settings.getBufferSize());
+        // A UTF-8 char needs at most 3 bytes, so a full char buffer always fits
+        this.chars = CharBuffer.allocate(settings.getBufferSize() / 3);
+    }
+
+    /**
+     * Open a file with the default settings.
+     * @param filename The file to write
+     * @throws IOException If the file cannot be opened
+     */
+    public ChannelWriter(String filename) throws IOException {
+        this(Paths.get(filename), OutputSettings.getDefault());
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        ensureOpen();
+        if (!chars.hasRemaining()) {
+            encode(false);
+        }
+        chars.put((char) c);
+    }
+
+    @Override
+    public void write(char[] source, int offset, int length) throws IOException {
+        ensureOpen();
+        while (length > 0) {
+            if (!chars.hasRemaining()) {
+                encode(false);
+            }
+            int n = Math.min(length, chars.remaining());
+            chars.put(source, offset, n);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    @Override
+    public void write(String text, int offset, int length) throws IOException {
+        ensureOpen();
+        while (length > 0) {
+            if (!chars.hasRemaining()) {
+                encode(false);
+            }
+            int n = Math.min(length, chars.remaining());
+            text.getChars(offset, offset + n, chars.array(), chars.arrayOffset() + chars.position());
+            chars.position(chars.position() + n);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        encode(false);
+        drain();
+        if (forcePolicy == ForcePolicy.ON_FLUSH) {
+            channel.force(false);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (bytes == null) {
+            return;
+        }
+        try {
+            encode(true);
+            drain();
+            if (forcePolicy != ForcePolicy.NONE) {
+                channel.force(false);
+            }
+        } finally {
+            BufferPool.release(bytes);
+            bytes = null;
+            channel.close();
+        }
+    }
+
+    /**
+     * Encode the pending characters into the byte buffer, writing it to the
+     * channel whenever it fills up. A trailing high surrogate is kept back
+     * until its pair arrives, unless this is the end of the input.
+     */
+    private void encode(boolean endOfInput) throws IOException {
+        CharsetEncoder encoder = ENCODER.get();
+        encoder.reset();
+        chars.flip();
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, endOfInput);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                throw new CharacterCodingException();
+            }
+        }
+        if (endOfInput) {
+            while (encoder.flush(bytes).isOverflow()) {
+                drain();
+            }
+        }
+        chars.compact();
+    }
+
+    private void drain() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (bytes == null) {
+            throw new IOException("Writer closed");
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.documenteditor.io;
+
+/**
+ * When written data is forced from the OS page cache to the storage device.
+ */
+public enum ForcePolicy {
+    /** Leave it to the operating system (fastest). */
+    NONE,
+    /** Force file content once, when the file is closed. */
+    ON_CLOSE,
+    /** Force file content on every flush and on close (safest, slowest). */
+    ON_FLUSH
+}
@@ -0,0 +1,112 @@
+package com.documenteditor.io;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only memory mapping of a whole file, addressed by long offsets.
+ * A single mapped buffer is limited to 2 GB, so larger files are mapped as
+ * consecutive 1 GB segments and reads that cross a segment boundary are
+ * stitched together. Mapping only reserves address space: pages are read
+ * from disk when first touched and can be evicted by the OS at any time.
+ * The mapping stays valid after the file is closed and is released when
+ * this object is garbage collected. Reads are thread-safe.
+ */
+public final class MappedFile {
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = (int) (SEGMENT_SIZE - 1);
+
+    private final MappedByteBuffer[] segments;
+    private final long size;
+
+    private MappedFile(MappedByteBuffer[] segments, long size) {
+        this.segments = segments;
+        this.size = size;
+    }
+
+    /**
+     * Map a file for reading.
+     * @param path The file to map
+     * @return The mapping
+     * @throws IOException If the file cannot be opened or mapped
+     */
+    public static MappedFile map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int count = (int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+            MappedByteBuffer[] segments = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long start = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+            }
+            return new MappedFile(segments, size);
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Read one byte.
+     * @param position The file offset
+     * @return The byte as an unsigned value
+     * @throws IndexOutOfBoundsException If the offset is outside the file
+     */
+    public int getUnsignedByte(long position) {
+        checkRange(position, 1);
+        return segments[(int) (position >>> SEGMENT_SHIFT)].get((int) position & SEGMENT_MASK) & 0xFF;
+    }
+
+    /**
+     * Read a big-endian long.
+     * @param position The file offset
+     * @return The value
+     * @throws IndexOutOfBoundsException If the range is outside the file
+     */
+    public long getLong(long position) {
+        checkRange(position, 8);
+        int offset = (int) position & SEGMENT_MASK;
+        MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+        if (offset + 8 <= segment.limit()) {
+            return segment.getLong(offset);
+        }
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | getUnsignedByte(position + i);
+        }
+        return value;
+    }
+
+    /**
+     * Copy a range of the file into an array.
+     * @param position The file offset to start at
+     * @param target The array to copy into
+     * @param offset Where in the array to start
+     * @param length The number of bytes to copy
+     * @throws IndexOutOfBoundsException If the range is outside the file
+     */
+    public void get(long position, byte[] target, int offset, int length) {
+        checkRange(position, length);
+        while (length > 0) {
+            MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+            int start = (int) position & SEGMENT_MASK;
+            int n = Math.min(length, segment.limit() - start);
+            segment.get(start, target, offset, n);
+            position += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    private void checkRange(long position, long length) {
+        if (position < 0 || length < 0 || position + length > size) {
+            throw new IndexOutOfBoundsException("Range [" + position + ", " + (position + length)
+                    + ") out of bounds for file of " + size + " bytes");
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.documenteditor.io;
+
+/**
+ * Immutable settings for the channel output layer: the size of the direct
+ * buffer each open file writes through, and when data is forced to disk.
+ * The process-wide default can be replaced, e.g. by a batch job that wants
+ * larger buffers.
+ */
+public final class OutputSettings {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int MIN_BUFFER_SIZE = 1024;
+
+    private static volatile OutputSettings defaults = new OutputSettings(DEFAULT_BUFFER_SIZE, ForcePolicy.NONE);
+
+    private final int bufferSize;
+    private final ForcePolicy forcePolicy;
+
+    public OutputSettings(int bufferSize, ForcePolicy forcePolicy) {
+        this.bufferSize = Math.max(MIN_BUFFER_SIZE, bufferSize);
+        this.forcePolicy = forcePolicy;
+    }
+
+    public static OutputSettings getDefault() {
+        return defaults;
+    }
+
+    public static void setDefault(OutputSettings settings) {
+        defaults = settings;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public ForcePolicy getForcePolicy() {
+        return forcePolicy;
+    }
+
+    public OutputSettings withBufferSize(int size) {
+        return new OutputSettings(size, forcePolicy);
+    }
+
+    public OutputSettings withForcePolicy(ForcePolicy policy) {
+        return new OutputSettings(bufferSize, policy);
+    }
+}
@@ -1,28 +1,40 @@
 package com.documenteditor.model;
 
+import com.documenteditor.observer.DocumentChangeEvent;
 import com.documenteditor.observer.DocumentObserver;
 import com.documenteditor.visitor.Visitor;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * COMPOSITE PATTERN: Composite class
  * OBSERVER PATTERN: Subject class
  * Represents a document that can contain multiple elements.
  */
-public class Document implements DocumentElement {
-    private List<DocumentElement> elements;
+public class Document implements DocumentElement, DocumentView {
+    private IndexedElementList elements;
+    private List<DocumentElement> elementsView;
     private List<DocumentObserver> observers;
     private String title;
     private boolean modified;
+    private long version;
+    private int batchDepth;
+    private List<DocumentChangeEvent> pendingEvents;
 
     public Document(String title) {
         this.title = title;
-        this.elements = new ArrayList<>();
-        this.observers = new ArrayList<>();
+        this.elements = new IndexedElementList();
+        this.elementsView = Collections.unmodifiableList(elements);
+        this.observers = new CopyOnWriteArrayList<>();
+        this.pendingEvents = new ArrayList<>();
         this.modified = false;
+        this.version = 0;
     }
 
     @Override
@@ -46,23 +58,179 @@ public class Document implements DocumentElement {
 
     @Override
     public void add(DocumentElement element) {
-        elements.add(element);
-        setModified(true);
-        notifyObservers();
+        add(elements.size(), element);
+    }
+
+    /**
+     * Insert an element at the given position.
+     * @param index The position to insert at (0 to element count)
+     * @param element The element to insert
+     */
+    public void add(int index, DocumentElement element) {
+        elements.add(index, element);
+        adopt(element);
+        changed(DocumentChangeEvent.elementsAdded(this, ++version, index, List.of(element)));
+    }
+
+    /**
+     * Append several elements with a single observer notification.
+     * @param added The elements to append, in order
+     */
+    public void addAll(Collection<? extends DocumentElement> added) {
+        addAll(elements.size(), added);
+    }
+
+    /**
+     * Insert several elements at a position with a single observer notification.
+     * @param index The position to insert at (0 to element count)
+     * @param added The elements to insert, in order
+     */
+    public void addAll(int index, Collection<? extends DocumentElement> added) {
+        List<DocumentElement> run = new ArrayList<>(added);
+        if (elements.addAll(index, run)) {
+            for (DocumentElement element : run) {
+                adopt(element);
+            }
+            changed(DocumentChangeEvent.elementsAdded(this, ++version, index, run));
+        }
     }
 
     @Override
     public void remove(DocumentElement element) {
-        elements.remove(element);
+        int index = elements.indexOf(element);
+        if (index < 0) {
+            return;
+        }
+        elements.remove(index);
+        release(element);
+        changed(DocumentChangeEvent.elementsRemoved(this, ++version, index, List.of(element)));
+    }
+
+    /**
+     * Remove the elements in [from, to) with a single observer notification.
+     * @param from The first position to remove
+     * @param to The position after the last removed element
+     * @return The removed elements, in document order
+     */
+    public List<DocumentElement> removeRange(int from, int to) {
+        List<DocumentElement> removed = elements.removeSpan(from, to);
+        if (!removed.isEmpty()) {
+            for (DocumentElement element : removed) {
+                release(element);
+            }
+            changed(DocumentChangeEvent.elementsRemoved(this, ++version, from, removed));
+        }
+        return removed;
+    }
+
+    /**
+     * Apply a group of edits as one transaction: the modified flag is set once
+     * and observers are notified once, after the outermost batch completes.
+     * Batches may be nested.
+     * @param edits The edits to apply to this document
+     */
+    public void batch(Consumer<Document> edits) {
+        batchDepth++;
+        try {
+            edits.accept(this);
+        } finally {
+            batchDepth--;
+            if (batchDepth == 0 && !pendingEvents.isEmpty()) {
+                List<DocumentChangeEvent> events = pendingEvents;
+                pendingEvents = new ArrayList<>();
+                setModified(true);
+                notifyObservers(events);
+            }
+        }
+    }
+
+    /**
+     * Called by a leaf element when one of its properties changes.
+     */
+    void elementChanged(LeafElement element, String property, Object oldValue, Object newValue) {
+        int index = elements.indexOf(element);
+        if (index < 0) {
+            return;
+        }
+        elements.refresh(element);
+        changed(DocumentChangeEvent.elementChanged(this, ++version, index, element,
+                property, oldValue, newValue));
+    }
+
+    /**
+     * Record a change, deferring the notification while in a batch.
+     */
+    private void changed(DocumentChangeEvent event) {
+        if (batchDepth > 0) {
+            pendingEvents.add(event);
+            return;
+        }
         setModified(true);
-        notifyObservers();
+        notifyObservers(List.of(event));
     }
 
+    private void adopt(DocumentElement element) {
+        if (element instanceof LeafElement) {
+            ((LeafElement) element).setOwner(this);
+        }
+    }
+
+    private void release(DocumentElement element) {
+        if (element instanceof LeafElement && ((LeafElement) element).getOwner() == this) {
+            ((LeafElement) element).setOwner(null);
+        }
+    }
+
+    /**
+     * Returns a defensive copy of the children.
+     * Prefer {@link #getElements()} for read-only traversal.
+     */
     @Override
     public List<DocumentElement> getChildren() {
         return new ArrayList<>(elements);
     }
 
+    /**
+     * Get a read-only live view of the children.
+     * The view is not copied, so traversing it allocates nothing per call;
+     * it reflects later changes to the document.
+     * @return Unmodifiable view of the child elements
+     */
+    @Override
+    public List<DocumentElement> getElements() {
+        return elementsView;
+    }
+
+    /**
+     * Get the child at the given position.
+     * @param index The position of the element
+     * @return The element at that position
+     */
+    public DocumentElement getElement(int index) {
+        return elements.get(index);
+    }
+
+    /**
+     * Find the position of a child element (by identity, in O(log n)).
+     * @param element The element to look up
+     * @return The index of the element, or -1 if it is not in the document
+     */
+    public int indexOf(DocumentElement element) {
+        return elements.indexOf(element);
+    }
+
+    /**
+     * Capture an immutable snapshot of the title, the element order and the
+     * elements' content in O(1). Later edits copy only the tree paths they
+     * touch, leaving the snapshot intact. The snapshot's elements are
+     * read-only copies, not the document's own instances.
+     * Must be called on the thread that edits the document.
+     * @return A snapshot that is safe to hand to another thread
+     */
+    public DocumentSnapshot snapshot() {
+        return new DocumentSnapshot(title, version, elements.snapshot());
+    }
+
     @Override
     public boolean isComposite() {
         return true;
@@ -84,6 +252,8 @@ public class Document implements DocumentElement {
     }
 
     // Observer pattern methods
+    // The observer list is copy-on-write, so attach/detach never block and are
+    // safe while a notification (possibly on another thread) is iterating it.
     public void attach(DocumentObserver observer) {
         observers.add(observer);
     }
@@ -92,20 +262,34 @@ public class Document implements DocumentElement {
         observers.remove(observer);
     }
 
-    private void notifyObservers() {
+    private void notifyObservers(List<DocumentChangeEvent> events) {
         for (DocumentObserver observer : observers) {
+            for (DocumentChangeEvent event : events) {
+                observer.onChange(event);
+            }
             observer.update(this);
         }
     }
 
     // Getters and setters
+    @Override
     public String getTitle() {
         return title;
     }
 
     public void setTitle(String title) {
+        String old = this.title;
         this.title = title;
-        setModified(true);
+        changed(DocumentChangeEvent.titleChanged(this, ++version, old, title));
+    }
+
+    /**
+     * Get the document version, which increases by one with every change.
+     * @return The current version
+     */
+    @Override
+    public long getVersion() {
+        return version;
     }
 
     public boolean isModified() {
@@ -116,6 +300,7 @@ public class Document implements DocumentElement {
         this.modified = modified;
     }
 
+    @Override
     public int getElementCount() {
         return elements.size();
     }
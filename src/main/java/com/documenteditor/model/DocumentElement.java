@@ -54,6 +54,15 @@ public interface DocumentElement {
         return false;
     }
     
+    /**
+     * Get a counter that increases every time this element's content changes.
+     * Caches can key on (element, version) to detect stale entries.
+     * @return The current content version
+     */
+    default long getVersion() {
+        return 0;
+    }
+    
     /**
      * Get a JSON-friendly representation for serialization.
      * @return JSON-compatible object representation
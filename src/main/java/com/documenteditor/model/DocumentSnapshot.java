@@ -0,0 +1,70 @@
+package com.documenteditor.model;
+
+import com.documenteditor.visitor.Visitor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, structurally shared snapshot of a {@link Document}.
+ * Taking a snapshot is O(1). Neither the element order nor the elements'
+ * content ever change, so it can be exported, saved or word-counted on a
+ * background thread while the document keeps being edited. Its elements
+ * are read-only copies that share their immutable text with the document's
+ * elements; setters on them throw {@link UnsupportedOperationException}.
+ */
+public final class DocumentSnapshot implements DocumentView {
+    private final String title;
+    private final long version;
+    private final IndexedElementList.Snapshot elements;
+
+    DocumentSnapshot(String title, long version, IndexedElementList.Snapshot elements) {
+        this.title = title;
+        this.version = version;
+        this.elements = elements;
+    }
+
+    @Override
+    public String getTitle() {
+        return title;
+    }
+
+    @Override
+    public List<DocumentElement> getElements() {
+        return elements;
+    }
+
+    @Override
+    public int getElementCount() {
+        return elements.size();
+    }
+
+    /**
+     * Get the document version this snapshot was taken at.
+     * @return The source document's version at snapshot time
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public void accept(Visitor visitor) {
+        visitor.visitDocument(this);
+    }
+
+    @Override
+    public Object toSerializable() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("type", "Document");
+        data.put("title", title);
+
+        List<Object> childData = new ArrayList<>();
+        for (DocumentElement element : elements) {
+            childData.add(element.toSerializable());
+        }
+        data.put("elements", childData);
+
+        return data;
+    }
+}
@@ -0,0 +1,42 @@
+package com.documenteditor.model;
+
+import com.documenteditor.visitor.Visitor;
+import java.util.List;
+
+/**
+ * Read-only view of a document's title and elements.
+ * Implemented by the live {@link Document} and by immutable
+ * {@link DocumentSnapshot}s, so visitors, exporters and persistence
+ * can work on either.
+ */
+public interface DocumentView {
+    /**
+     * Get the document title.
+     * @return The title
+     */
+    String getTitle();
+
+    /**
+     * Get the elements in document order without copying them.
+     * @return Unmodifiable list of elements
+     */
+    List<DocumentElement> getElements();
+
+    /**
+     * Get the number of elements.
+     * @return The element count
+     */
+    int getElementCount();
+
+    /**
+     * Accept a visitor for the Visitor pattern.
+     * @param visitor The visitor to accept
+     */
+    void accept(Visitor visitor);
+
+    /**
+     * Get a JSON-friendly representation for serialization.
+     * @return JSON-compatible object representation
+     */
+    Object toSerializable();
+}
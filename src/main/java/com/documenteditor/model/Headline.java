@@ -1,5 +1,6 @@
 package com.documenteditor.model;
 
+import com.documenteditor.text.Rope;
 import com.documenteditor.visitor.Visitor;
 import java.util.HashMap;
 import java.util.Map;
@@ -8,15 +9,20 @@ import java.util.Map;
  * COMPOSITE PATTERN: Leaf class
  * Represents a headline element with a level (1-3).
  */
-public class Headline implements DocumentElement {
-    private String text;
+public class Headline extends LeafElement {
+    private Rope text;
     private int level; // 1, 2, or 3
 
     public Headline(String text, int level) {
-        this.text = text;
+        this.text = Rope.of(text);
         this.level = Math.max(1, Math.min(3, level)); // Clamp between 1 and 3
     }
 
+    private Headline(Rope text, int level) {
+        this.text = text;
+        this.level = level;
+    }
+
     @Override
     public void accept(Visitor visitor) {
         visitor.visitHeadline(this);
@@ -32,17 +38,57 @@ public class Headline implements DocumentElement {
     public Object toSerializable() {
         Map<String, Object> data = new HashMap<>();
         data.put("type", "Headline");
-        data.put("text", text);
+        data.put("text", text.toString());
         data.put("level", level);
         return data;
     }
 
+    @Override
+    protected Headline copy() {
+        return new Headline(text, level);
+    }
+
     public String getText() {
+        return text.toString();
+    }
+
+    /**
+     * Get the text without copying it into a String.
+     * @return The rope holding the headline text
+     */
+    public Rope getContent() {
         return text;
     }
 
     public void setText(String text) {
-        this.text = text;
+        checkMutable();
+        Rope old = this.text;
+        this.text = Rope.of(text);
+        changed("text", old, this.text);
+    }
+
+    /**
+     * Insert text at the given character offset.
+     * @param offset The offset to insert at
+     * @param insertion The text to insert
+     */
+    public void insertText(int offset, CharSequence insertion) {
+        checkMutable();
+        Rope old = this.text;
+        this.text = text.insert(offset, insertion);
+        changed("text", old, this.text);
+    }
+
+    /**
+     * Delete the characters in the range [start, end).
+     * @param start The first offset to delete
+     * @param end The offset after the last deleted character
+     */
+    public void deleteText(int start, int end) {
+        checkMutable();
+        Rope old = this.text;
+        this.text = text.delete(start, end);
+        changed("text", old, this.text);
     }
 
     public int getLevel() {
@@ -50,6 +96,9 @@ public class Headline implements DocumentElement {
     }
 
     public void setLevel(int level) {
+        checkMutable();
+        int old = this.level;
         this.level = Math.max(1, Math.min(3, level));
+        changed("level", old, this.level);
     }
 }
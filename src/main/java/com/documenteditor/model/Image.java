@@ -8,7 +8,7 @@ import java.util.Map;
  * COMPOSITE PATTERN: Leaf class
  * Represents an image element with filename and dimensions.
  */
-public class Image implements DocumentElement {
+public class Image extends LeafElement {
     private String filename;
     private int width;
     private int height;
@@ -39,12 +39,20 @@ public class Image implements DocumentElement {
         return data;
     }
     
+    @Override
+    protected Image copy() {
+        return new Image(filename, width, height);
+    }
+    
     public String getFilename() {
         return filename;
     }
     
     public void setFilename(String filename) {
+        checkMutable();
+        String old = this.filename;
         this.filename = filename;
+        changed("filename", old, filename);
     }
     
     public int getWidth() {
@@ -52,7 +60,10 @@ public class Image implements DocumentElement {
     }
     
     public void setWidth(int width) {
+        checkMutable();
+        int old = this.width;
         this.width = width;
+        changed("width", old, width);
     }
     
     public int getHeight() {
@@ -60,6 +71,9 @@ public class Image implements DocumentElement {
     }
     
     public void setHeight(int height) {
+        checkMutable();
+        int old = this.height;
         this.height = height;
+        changed("height", old, height);
     }
 }
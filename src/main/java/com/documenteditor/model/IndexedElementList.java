@@ -0,0 +1,520 @@
+package com.documenteditor.model;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Backing store for the children of a {@link Document}.
+ * An implicit treap (order-statistic tree keyed by position) combined with an
+ * identity index from element to tree node, so positional insert, positional
+ * remove, remove-by-element and index-of all run in O(log n) expected time.
+ * Elements are tracked by identity; an element instance may appear only once.
+ *
+ * The tree is persistent: {@link #snapshot()} freezes the current nodes in O(1)
+ * and later mutations copy only the O(log n) nodes on the path they touch
+ * (nodes created in an older generation are never modified in place).
+ * Each node also holds a read-only copy of its leaf element, replaced through
+ * {@link #refresh} whenever the element changes, and snapshots hand out
+ * those copies; so a snapshot sees the content as well as the order of the
+ * elements as they were when it was taken.
+ */
+class IndexedElementList extends AbstractList<DocumentElement> {
+    private final Map<DocumentElement, Node> index;
+    private Node root;
+    private int seed;
+    private int generation;
+
+    IndexedElementList() {
+        this.index = new IdentityHashMap<>();
+        this.seed = 0x2545F491;
+        this.generation = 0;
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @Override
+    public DocumentElement get(int position) {
+        checkIndex(position, size());
+        return nodeAt(root, position).element;
+    }
+
+    @Override
+    public void add(int position, DocumentElement element) {
+        checkIndex(position, size() + 1);
+        if (index.containsKey(element)) {
+            throw new IllegalArgumentException("Element is already part of this document");
+        }
+        Node node = new Node(element, freeze(element), nextPriority(), generation);
+        index.put(element, node);
+
+        Node[] parts = split(root, position);
+        setRoot(merge(merge(parts[0], node), parts[1]));
+        modCount++;
+    }
+
+    /**
+     * Insert a run of elements at a position in O(k + log n): the run is
+     * built into a treap in one pass and merged in with a single split.
+     */
+    @Override
+    public boolean addAll(int position, Collection<? extends DocumentElement> added) {
+        checkIndex(position, size() + 1);
+        if (added.isEmpty()) {
+            return false;
+        }
+        Node run = buildRun(added);
+        Node[] parts = split(root, position);
+        setRoot(merge(merge(parts[0], run), parts[1]));
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends DocumentElement> added) {
+        return addAll(size(), added);
+    }
+
+    /**
+     * Remove the elements in [from, to) in O(k + log n).
+     * @return The removed elements in document order
+     */
+    List<DocumentElement> removeSpan(int from, int to) {
+        if (from < 0 || to > size() || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for length " + size());
+        }
+        Node[] head = split(root, from);
+        Node[] tail = split(head[1], to - from);
+        setRoot(merge(head[0], tail[1]));
+
+        List<DocumentElement> removed = new ArrayList<>(to - from);
+        for (Iterator<DocumentElement> it = new TreeIterator(tail[0], 0); it.hasNext(); ) {
+            DocumentElement element = it.next();
+            index.remove(element);
+            removed.add(element);
+        }
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public DocumentElement remove(int position) {
+        checkIndex(position, size());
+        Node[] head = split(root, position);
+        Node[] tail = split(head[1], 1);
+        setRoot(merge(head[0], tail[1]));
+
+        DocumentElement element = tail[0].element;
+        index.remove(element);
+        modCount++;
+        return element;
+    }
+
+    /**
+     * Remove an element by identity.
+     * @param element The element to remove
+     * @return true if the element was present
+     */
+    boolean removeElement(DocumentElement element) {
+        int position = indexOf(element);
+        if (position < 0) {
+            return false;
+        }
+        remove(position);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof DocumentElement && removeElement((DocumentElement) o);
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        Node node = index.get(o);
+        if (node == null) {
+            return -1;
+        }
+        int rank = size(node.left);
+        for (Node child = node, parent = node.parent; parent != null; child = parent, parent = parent.parent) {
+            if (parent.right == child) {
+                rank += size(parent.left) + 1;
+            }
+        }
+        return rank;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return index.containsKey(o);
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        index.clear();
+        modCount++;
+    }
+
+    @Override
+    public Iterator<DocumentElement> iterator() {
+        return iterator(0);
+    }
+
+    /**
+     * In-order iterator starting at the given position; O(log n) to position,
+     * then amortised O(1) per element.
+     */
+    Iterator<DocumentElement> iterator(int from) {
+        checkIndex(from, size() + 1);
+        return new TreeIterator(root, from) {
+            private final int expectedModCount = modCount;
+
+            @Override
+            public DocumentElement next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                return super.next();
+            }
+        };
+    }
+
+    /**
+     * Take a new read-only copy of an element that has changed, copying the
+     * path to its node if a snapshot can still see that node.
+     * @param element The element whose content changed
+     */
+    void refresh(DocumentElement element) {
+        Node node = index.get(element);
+        if (node != null) {
+            ownPath(node).frozen = freeze(element);
+        }
+    }
+
+    /**
+     * Freeze the current tree and return an immutable view of it in O(1).
+     * @return A list that never observes later changes to this one
+     */
+    Snapshot snapshot() {
+        generation++;
+        return new Snapshot(root);
+    }
+
+    // Treap internals
+
+    /**
+     * Build a treap over the given elements in order, in linear time, using the
+     * standard stack-based Cartesian tree construction. Registers every element
+     * in the identity index, rolling back if any of them is already present.
+     */
+    private Node buildRun(Collection<? extends DocumentElement> added) {
+        ArrayDeque<Node> spine = new ArrayDeque<>();
+        List<DocumentElement> registered = new ArrayList<>(added.size());
+        for (DocumentElement element : added) {
+            if (index.containsKey(element)) {
+                for (DocumentElement e : registered) {
+                    index.remove(e);
+                }
+                throw new IllegalArgumentException("Element is already part of this document");
+            }
+            Node node = new Node(element, freeze(element), nextPriority(), generation);
+            index.put(element, node);
+            registered.add(element);
+
+            Node last = null;
+            while (!spine.isEmpty() && spine.peek().priority < node.priority) {
+                last = spine.pop();
+                pull(last);
+            }
+            node.left = last;
+            if (!spine.isEmpty()) {
+                spine.peek().right = node;
+            }
+            spine.push(node);
+        }
+        Node top = null;
+        while (!spine.isEmpty()) {
+            top = spine.pop();
+            pull(top);
+        }
+        return top;
+    }
+
+    /**
+     * Return a node that may be modified in place, copying it if it belongs
+     * to a generation that a snapshot can still see.
+     */
+    private Node own(Node node) {
+        if (node.generation == generation) {
+            return node;
+        }
+        Node copy = new Node(node.element, node.frozen, node.priority, generation);
+        copy.left = node.left;
+        copy.right = node.right;
+        copy.parent = node.parent;
+        copy.size = node.size;
+        index.put(copy.element, copy);
+        return copy;
+    }
+
+    /**
+     * Make a node modifiable in place by copying it and every ancestor that
+     * a snapshot can still see. Nodes of the current generation only ever
+     * hang below nodes of the current generation, so the walk stops at the
+     * first one.
+     */
+    private Node ownPath(Node node) {
+        if (node.generation == generation) {
+            return node;
+        }
+        Node parent = node.parent;
+        Node copy = own(node);
+        pull(copy);
+        if (parent == null) {
+            setRoot(copy);
+        } else {
+            Node owner = ownPath(parent);
+            if (owner.left == node) {
+                owner.left = copy;
+            } else {
+                owner.right = copy;
+            }
+            copy.parent = owner;
+        }
+        return copy;
+    }
+
+    private static DocumentElement freeze(DocumentElement element) {
+        return element instanceof LeafElement ? ((LeafElement) element).freeze() : element;
+    }
+
+    private static Node nodeAt(Node node, int position) {
+        while (true) {
+            int leftSize = size(node.left);
+            if (position < leftSize) {
+                node = node.left;
+            } else if (position == leftSize) {
+                return node;
+            } else {
+                position -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    private void setRoot(Node node) {
+        root = node;
+        if (node != null) {
+            node.parent = null;
+        }
+    }
+
+    /**
+     * Split a subtree into the first {@code count} nodes and the rest.
+     */
+    private Node[] split(Node node, int count) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (count <= 0) {
+            return new Node[] {null, node};
+        }
+        if (count >= node.size) {
+            return new Node[] {node, null};
+        }
+        node = own(node);
+        Node[] parts;
+        if (size(node.left) >= count) {
+            parts = split(node.left, count);
+            node.left = parts[1];
+            pull(node);
+            parts[1] = node;
+        } else {
+            parts = split(node.right, count - size(node.left) - 1);
+            node.right = parts[0];
+            pull(node);
+            parts[0] = node;
+        }
+        return parts;
+    }
+
+    private Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left = own(left);
+            left.right = merge(left.right, right);
+            pull(left);
+            return left;
+        }
+        right = own(right);
+        right.left = merge(left, right.left);
+        pull(right);
+        return right;
+    }
+
+    /**
+     * Recompute a node's size and point its children back at it.
+     * Parent links are only used by the live list, so rewriting them on
+     * frozen children does not disturb snapshots.
+     */
+    private static void pull(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        if (node.left != null) {
+            node.left.parent = node;
+        }
+        if (node.right != null) {
+            node.right.parent = node;
+        }
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private int nextPriority() {
+        // xorshift32: cheap, deterministic priorities for the treap
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+
+    private static void checkIndex(int position, int bound) {
+        if (position < 0 || position >= bound) {
+            throw new IndexOutOfBoundsException("Index " + position + " out of bounds for length " + bound);
+        }
+    }
+
+    private static final class Node {
+        final DocumentElement element;
+        DocumentElement frozen;
+        final int priority;
+        final int generation;
+        Node left;
+        Node right;
+        Node parent;
+        int size;
+
+        Node(DocumentElement element, DocumentElement frozen, int priority, int generation) {
+            this.element = element;
+            this.frozen = frozen;
+            this.priority = priority;
+            this.generation = generation;
+            this.size = 1;
+        }
+    }
+
+    /**
+     * Immutable list over a frozen tree, or over a range of it, holding the
+     * read-only copies of the elements. Only walks top-down, so it is safe
+     * to read from other threads once published.
+     * Sub-lists share the tree and iterate in amortised O(1) per element.
+     */
+    static final class Snapshot extends AbstractList<DocumentElement> {
+        private final Node root;
+        private final int from;
+        private final int to;
+
+        private Snapshot(Node root) {
+            this(root, 0, IndexedElementList.size(root));
+        }
+
+        private Snapshot(Node root, int from, int to) {
+            this.root = root;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+        @Override
+        public DocumentElement get(int position) {
+            checkIndex(position, size());
+            return nodeAt(root, from + position).frozen;
+        }
+
+        @Override
+        public Iterator<DocumentElement> iterator() {
+            return new TreeIterator(root, from, size(), true);
+        }
+
+        @Override
+        public List<DocumentElement> subList(int fromIndex, int toIndex) {
+            if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
+                throw new IndexOutOfBoundsException(
+                        "Range [" + fromIndex + ", " + toIndex + ") out of bounds for length " + size());
+            }
+            return new Snapshot(root, from + fromIndex, from + toIndex);
+        }
+    }
+
+    private static class TreeIterator implements Iterator<DocumentElement> {
+        private final ArrayDeque<Node> stack = new ArrayDeque<>();
+        private final boolean frozen;
+        private int remaining;
+
+        TreeIterator(Node node, int from) {
+            this(node, from, Integer.MAX_VALUE, false);
+        }
+
+        TreeIterator(Node node, int from, int limit, boolean frozen) {
+            this.remaining = limit;
+            this.frozen = frozen;
+            while (node != null) {
+                int leftSize = size(node.left);
+                if (from <= leftSize) {
+                    stack.push(node);
+                    if (from == leftSize) {
+                        break;
+                    }
+                    node = node.left;
+                } else {
+                    from -= leftSize + 1;
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0 && !stack.isEmpty();
+        }
+
+        @Override
+        public DocumentElement next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            remaining--;
+            Node node = stack.pop();
+            for (Node next = node.right; next != null; next = next.left) {
+                stack.push(next);
+            }
+            return frozen ? node.frozen : node.element;
+        }
+    }
+}
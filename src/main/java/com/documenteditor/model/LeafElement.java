@@ -0,0 +1,67 @@
+package com.documenteditor.model;
+
+/**
+ * COMPOSITE PATTERN: Leaf base class
+ * Shared plumbing for leaf elements: a content version counter, a link to
+ * the owning document so property changes are reported as change events,
+ * and read-only copies for document snapshots.
+ */
+public abstract class LeafElement implements DocumentElement {
+    private Document owner;
+    private long version;
+    private boolean frozen;
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Record a property change and report it to the owning document.
+     * @param property The name of the property that changed
+     * @param oldValue The previous value
+     * @param newValue The new value
+     */
+    protected void changed(String property, Object oldValue, Object newValue) {
+        version++;
+        if (owner != null) {
+            owner.elementChanged(this, property, oldValue, newValue);
+        }
+    }
+
+    /**
+     * Create a detached copy of this element that shares its immutable
+     * content. Used to build the read-only copies held by snapshots.
+     * @return The copy
+     */
+    protected abstract LeafElement copy();
+
+    /**
+     * Throw if this element is a snapshot's read-only copy. Setters call
+     * this before changing anything.
+     */
+    protected void checkMutable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Snapshot elements are read-only");
+        }
+    }
+
+    /**
+     * Get a read-only copy of the element's current content, with the same
+     * version, for a snapshot.
+     */
+    LeafElement freeze() {
+        LeafElement copy = copy();
+        copy.version = version;
+        copy.frozen = true;
+        return copy;
+    }
+
+    Document getOwner() {
+        return owner;
+    }
+
+    void setOwner(Document owner) {
+        this.owner = owner;
+    }
+}
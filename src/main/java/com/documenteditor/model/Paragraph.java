@@ -1,5 +1,6 @@
 package com.documenteditor.model;
 
+import com.documenteditor.text.Rope;
 import com.documenteditor.visitor.Visitor;
 import java.util.HashMap;
 import java.util.Map;
@@ -8,10 +9,14 @@ import java.util.Map;
  * COMPOSITE PATTERN: Leaf class
  * Represents a paragraph element in the document.
  */
-public class Paragraph implements DocumentElement {
-    private String text;
+public class Paragraph extends LeafElement {
+    private Rope text;
     
     public Paragraph(String text) {
+        this.text = Rope.of(text);
+    }
+    
+    private Paragraph(Rope text) {
         this.text = text;
     }
     
@@ -22,22 +27,62 @@ public class Paragraph implements DocumentElement {
     
     @Override
     public String render() {
-        return text;
+        return text.toString();
     }
     
     @Override
     public Object toSerializable() {
         Map<String, Object> data = new HashMap<>();
         data.put("type", "Paragraph");
-        data.put("text", text);
+        data.put("text", text.toString());
         return data;
     }
     
+    @Override
+    protected Paragraph copy() {
+        return new Paragraph(text);
+    }
+    
     public String getText() {
+        return text.toString();
+    }
+    
+    /**
+     * Get the text without copying it into a String.
+     * @return The rope holding the paragraph text
+     */
+    public Rope getContent() {
         return text;
     }
     
     public void setText(String text) {
-        this.text = text;
+        checkMutable();
+        Rope old = this.text;
+        this.text = Rope.of(text);
+        changed("text", old, this.text);
+    }
+    
+    /**
+     * Insert text at the given character offset.
+     * @param offset The offset to insert at
+     * @param insertion The text to insert
+     */
+    public void insertText(int offset, CharSequence insertion) {
+        checkMutable();
+        Rope old = this.text;
+        this.text = text.insert(offset, insertion);
+        changed("text", old, this.text);
+    }
+    
+    /**
+     * Delete the characters in the range [start, end).
+     * @param start The first offset to delete
+     * @param end The offset after the last deleted character
+     */
+    public void deleteText(int start, int end) {
+        checkMutable();
+        Rope old = this.text;
+        this.text = text.delete(start, end);
+        changed("text", old, this.text);
     }
 }
@@ -0,0 +1,154 @@
+package com.documenteditor.observer;
+
+import com.documenteditor.model.Document;
+import com.documenteditor.util.Logger;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * OBSERVER PATTERN: Concrete Observer
+ * DECORATOR PATTERN: wraps another observer
+ * Delivers notifications to the wrapped observer on an executor instead of the
+ * editing thread. Events are queued in a bounded buffer and delivered in order;
+ * bursts of update calls coalesce into a single update per drain.
+ *
+ * The wrapped observer runs on a worker thread while edits continue, so it
+ * should only read state that tolerates concurrent edits (or work from the
+ * event payloads and a {@link Document#snapshot()}).
+ */
+public class AsyncObserver implements DocumentObserver {
+    /**
+     * What to do when the event buffer is full.
+     */
+    public enum BackpressurePolicy {
+        /** Block the editing thread until the observer catches up. The default. */
+        BLOCK,
+        /**
+         * Drop the event and keep editing. Only for observers that can
+         * rebuild their state: they must detect the loss from the gap in
+         * event versions and resynchronise from the document in
+         * {@code update}. Observers whose {@code update} does nothing, such
+         * as {@link LiveWordCounter}, drift out of sync for good.
+         */
+        DROP
+    }
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static volatile ExecutorService defaultExecutor;
+
+    private final DocumentObserver delegate;
+    private final Executor executor;
+    private final BlockingQueue<DocumentChangeEvent> events;
+    private final BackpressurePolicy policy;
+    private final AtomicReference<Document> pendingUpdate;
+    private final AtomicBoolean scheduled;
+    private final AtomicLong droppedEvents;
+    private final Runnable drainTask;
+
+    /**
+     * Wrap an observer with the shared executor, the default buffer size
+     * and the {@link BackpressurePolicy#BLOCK} policy, so no event is lost.
+     * @param delegate The observer to notify asynchronously
+     */
+    public AsyncObserver(DocumentObserver delegate) {
+        this(delegate, sharedExecutor(), DEFAULT_CAPACITY, BackpressurePolicy.BLOCK);
+    }
+
+    public AsyncObserver(DocumentObserver delegate, Executor executor, int capacity, BackpressurePolicy policy) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.events = new ArrayBlockingQueue<>(capacity);
+        this.policy = policy;
+        this.pendingUpdate = new AtomicReference<>();
+        this.scheduled = new AtomicBoolean(false);
+        this.droppedEvents = new AtomicLong();
+        this.drainTask = this::drain;
+    }
+
+    @Override
+    public void onChange(DocumentChangeEvent event) {
+        if (!events.offer(event)) {
+            if (policy == BackpressurePolicy.BLOCK) {
+                // Make sure a drain is running to free space, then wait for it
+                schedule();
+                try {
+                    events.put(event);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    droppedEvents.incrementAndGet();
+                }
+            } else {
+                droppedEvents.incrementAndGet();
+            }
+        }
+        schedule();
+    }
+
+    @Override
+    public void update(Document document) {
+        pendingUpdate.set(document);
+        schedule();
+    }
+
+    /**
+     * Get the number of events discarded because the buffer was full.
+     * @return The dropped event count
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    public DocumentObserver getDelegate() {
+        return delegate;
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(drainTask);
+        }
+    }
+
+    /**
+     * Deliver everything queued so far. Only one drain runs at a time per
+     * observer, so the wrapped observer is never called concurrently.
+     */
+    private void drain() {
+        do {
+            try {
+                DocumentChangeEvent event;
+                while ((event = events.poll()) != null) {
+                    delegate.onChange(event);
+                }
+                Document document = pendingUpdate.getAndSet(null);
+                if (document != null) {
+                    delegate.update(document);
+                }
+            } catch (RuntimeException e) {
+                Logger.getInstance().error("Asynchronous observer failed", e);
+            }
+            scheduled.set(false);
+            // Re-check: work may have arrived after the last poll but before the flag was cleared
+        } while ((!events.isEmpty() || pendingUpdate.get() != null) && scheduled.compareAndSet(false, true));
+    }
+
+    private static Executor sharedExecutor() {
+        if (defaultExecutor == null) {
+            synchronized (AsyncObserver.class) {
+                if (defaultExecutor == null) {
+                    defaultExecutor = Executors.newCachedThreadPool(runnable -> {
+                        Thread thread = new Thread(runnable, "document-observer");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return defaultExecutor;
+    }
+}
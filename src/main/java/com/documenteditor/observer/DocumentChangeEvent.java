@@ -0,0 +1,141 @@
+package com.documenteditor.observer;
+
+import com.documenteditor.model.Document;
+import com.documenteditor.model.DocumentElement;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * OBSERVER PATTERN: Event object
+ * Describes a single change to a document, so observers that keep derived
+ * state can update it in O(change) instead of rescanning the whole document.
+ */
+public final class DocumentChangeEvent {
+    /**
+     * Kind of change carried by the event.
+     */
+    public enum Type {
+        /** Elements were inserted starting at {@link #getIndex()}. */
+        ELEMENTS_ADDED,
+        /** Elements that used to start at {@link #getIndex()} were removed. */
+        ELEMENTS_REMOVED,
+        /** A property of the element at {@link #getIndex()} changed. */
+        ELEMENT_CHANGED,
+        /** The document title changed. */
+        TITLE_CHANGED
+    }
+
+    private final Document document;
+    private final Type type;
+    private final long version;
+    private final int index;
+    private final List<DocumentElement> elements;
+    private final String property;
+    private final Object oldValue;
+    private final Object newValue;
+
+    private DocumentChangeEvent(Document document, Type type, long version, int index,
+                                List<DocumentElement> elements, String property,
+                                Object oldValue, Object newValue) {
+        this.document = document;
+        this.type = type;
+        this.version = version;
+        this.index = index;
+        this.elements = elements;
+        this.property = property;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    public static DocumentChangeEvent elementsAdded(Document document, long version, int index,
+                                                    List<DocumentElement> elements) {
+        return new DocumentChangeEvent(document, Type.ELEMENTS_ADDED, version, index,
+                Collections.unmodifiableList(elements), null, null, null);
+    }
+
+    public static DocumentChangeEvent elementsRemoved(Document document, long version, int index,
+                                                      List<DocumentElement> elements) {
+        return new DocumentChangeEvent(document, Type.ELEMENTS_REMOVED, version, index,
+                Collections.unmodifiableList(elements), null, null, null);
+    }
+
+    public static DocumentChangeEvent elementChanged(Document document, long version, int index,
+                                                     DocumentElement element, String property,
+                                                     Object oldValue, Object newValue) {
+        return new DocumentChangeEvent(document, Type.ELEMENT_CHANGED, version, index,
+                Collections.singletonList(element), property, oldValue, newValue);
+    }
+
+    public static DocumentChangeEvent titleChanged(Document document, long version,
+                                                   String oldTitle, String newTitle) {
+        return new DocumentChangeEvent(document, Type.TITLE_CHANGED, version, -1,
+                Collections.emptyList(), "title", oldTitle, newTitle);
+    }
+
+    public Document getDocument() {
+        return document;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Get the document version produced by this change.
+     * Versions increase by one for every change, so gaps reveal missed events.
+     * @return The version after the change was applied
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the position the change applies to, or -1 for title changes.
+     * @return The element index
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Get the affected elements, in document order.
+     * @return The added, removed or changed elements
+     */
+    public List<DocumentElement> getElements() {
+        return elements;
+    }
+
+    /**
+     * Get the first affected element.
+     * @return The element, or null for title changes
+     */
+    public DocumentElement getElement() {
+        return elements.isEmpty() ? null : elements.get(0);
+    }
+
+    public int getCount() {
+        return elements.size();
+    }
+
+    /**
+     * Get the name of the changed property (e.g. "text", "level", "title").
+     * @return The property name, or null for structural changes
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    public Object getOldValue() {
+        return oldValue;
+    }
+
+    public Object getNewValue() {
+        return newValue;
+    }
+
+    @Override
+    public String toString() {
+        return type + "@" + version + " index=" + index + " count=" + elements.size()
+                + (property != null ? " property=" + property : "");
+    }
+}
@@ -12,4 +12,13 @@ public interface DocumentObserver {
      * @param document The document that was modified
      */
     void update(Document document);
+
+    /**
+     * Called with each fine-grained change, before {@link #update(Document)}.
+     * Inside a batch, all events of the batch are delivered in order and
+     * followed by a single update call.
+     * @param event The change that was applied
+     */
+    default void onChange(DocumentChangeEvent event) {
+    }
 }
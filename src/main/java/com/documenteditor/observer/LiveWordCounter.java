@@ -0,0 +1,127 @@
+package com.documenteditor.observer;
+
+import com.documenteditor.model.Document;
+import com.documenteditor.model.DocumentElement;
+import com.documenteditor.model.Headline;
+import com.documenteditor.model.Paragraph;
+import com.documenteditor.strategy.WordCountStrategy;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * OBSERVER PATTERN: Concrete Observer
+ * STRATEGY PATTERN: Context (uses WordCountStrategy)
+ * Keeps word and character totals for a document up to date from change
+ * events. Per-element counts are cached, so queries are O(1) and an edit
+ * only recounts the element it touched.
+ */
+public class LiveWordCounter implements DocumentObserver {
+    private final WordCountStrategy strategy;
+    private final Map<DocumentElement, int[]> counts;
+    private Document document;
+    private long wordCount;
+    private long characterCount;
+
+    public LiveWordCounter(WordCountStrategy strategy) {
+        this.strategy = strategy;
+        this.counts = new IdentityHashMap<>();
+    }
+
+    /**
+     * Count the document once and start following its changes.
+     * Detaches from any previously followed document.
+     * @param document The document to count
+     */
+    public void attachTo(Document document) {
+        detach();
+        this.document = document;
+        for (DocumentElement element : document.getElements()) {
+            add(element);
+        }
+        document.attach(this);
+    }
+
+    /**
+     * Stop following the current document and clear all counts.
+     */
+    public void detach() {
+        if (document != null) {
+            document.detach(this);
+            document = null;
+        }
+        counts.clear();
+        wordCount = 0;
+        characterCount = 0;
+    }
+
+    @Override
+    public void update(Document document) {
+        // Totals are maintained from the fine-grained events
+    }
+
+    @Override
+    public void onChange(DocumentChangeEvent event) {
+        switch (event.getType()) {
+            case ELEMENTS_ADDED -> {
+                for (DocumentElement element : event.getElements()) {
+                    add(element);
+                }
+            }
+            case ELEMENTS_REMOVED -> {
+                for (DocumentElement element : event.getElements()) {
+                    remove(element);
+                }
+            }
+            case ELEMENT_CHANGED -> {
+                remove(event.getElement());
+                add(event.getElement());
+            }
+            default -> {
+                // The title does not contribute to the word count
+            }
+        }
+    }
+
+    public long getWordCount() {
+        return wordCount;
+    }
+
+    public long getCharacterCount() {
+        return characterCount;
+    }
+
+    private void add(DocumentElement element) {
+        CharSequence text = textOf(element);
+        int[] count = text == null
+                ? new int[] {0, 0}
+                : new int[] {strategy.countWords(text), text.length()};
+        int[] previous = counts.put(element, count);
+        if (previous != null) {
+            subtract(previous);
+        }
+        wordCount += count[0];
+        characterCount += count[1];
+    }
+
+    private void remove(DocumentElement element) {
+        int[] count = counts.remove(element);
+        if (count != null) {
+            subtract(count);
+        }
+    }
+
+    private void subtract(int[] count) {
+        wordCount -= count[0];
+        characterCount -= count[1];
+    }
+
+    private static CharSequence textOf(DocumentElement element) {
+        if (element instanceof Paragraph) {
+            return ((Paragraph) element).getContent();
+        }
+        if (element instanceof Headline) {
+            return ((Headline) element).getContent();
+        }
+        return null;
+    }
+}
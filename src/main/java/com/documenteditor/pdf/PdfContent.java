@@ -0,0 +1,127 @@
+package com.documenteditor.pdf;
+
+import java.util.Arrays;
+
+/**
+ * Builds the content stream of one page: text and simple line graphics.
+ * The buffer is reused from page to page, so a document of any length is
+ * laid out in the memory of a single page.
+ */
+public final class PdfContent {
+    private byte[] data;
+    private int length;
+
+    public PdfContent() {
+        this.data = new byte[8192];
+    }
+
+    /**
+     * Clear the content for the next page, keeping the buffer.
+     */
+    public void reset() {
+        length = 0;
+    }
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    /**
+     * Draw a line of text with its baseline starting at (x, y).
+     * @param font The font to draw with
+     * @param size The font size in points
+     * @param x The left edge in points
+     * @param y The baseline in points
+     * @param text The text; characters outside WinAnsiEncoding are drawn as '?'
+     * @return This content, for chaining
+     */
+    public PdfContent text(StandardFont font, float size, float x, float y, CharSequence text) {
+        append("BT /").append(font.getResourceName()).append(' ').append(size).append(" Tf ");
+        append(x).append(' ').append(y).append(" Td (");
+        for (int i = 0, n = text.length(); i < n; i++) {
+            int code = StandardFont.encode(text.charAt(i));
+            if (code == '(' || code == ')' || code == '\\') {
+                append('\\');
+            }
+            append((char) code);
+        }
+        return append(") Tj ET\n");
+    }
+
+    /**
+     * Stroke the outline of a rectangle.
+     * @return This content, for chaining
+     */
+    public PdfContent rectangle(float x, float y, float width, float height) {
+        append(x).append(' ').append(y).append(' ').append(width).append(' ').append(height);
+        return append(" re S\n");
+    }
+
+    /**
+     * Stroke a straight line.
+     * @return This content, for chaining
+     */
+    public PdfContent line(float x1, float y1, float x2, float y2) {
+        append(x1).append(' ').append(y1).append(" m ").append(x2).append(' ').append(y2);
+        return append(" l S\n");
+    }
+
+    /**
+     * Set the stroke gray level.
+     * @param gray 0 for black to 1 for white
+     * @return This content, for chaining
+     */
+    public PdfContent strokeGray(float gray) {
+        return append(gray).append(" G\n");
+    }
+
+    byte[] data() {
+        return data;
+    }
+
+    int length() {
+        return length;
+    }
+
+    private PdfContent append(String ascii) {
+        for (int i = 0, n = ascii.length(); i < n; i++) {
+            append(ascii.charAt(i));
+        }
+        return this;
+    }
+
+    private PdfContent append(char c) {
+        if (length == data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        data[length++] = (byte) c;
+        return this;
+    }
+
+    /**
+     * Append a number with at most two decimals, independent of the locale.
+     */
+    private PdfContent append(float value) {
+        long hundredths = Math.round(value * 100.0);
+        if (hundredths < 0) {
+            append('-');
+            hundredths = -hundredths;
+        }
+        appendDigits(hundredths / 100);
+        int fraction = (int) (hundredths % 100);
+        if (fraction != 0) {
+            append('.').append((char) ('0' + fraction / 10));
+            if (fraction % 10 != 0) {
+                append((char) ('0' + fraction % 10));
+            }
+        }
+        return this;
+    }
+
+    private void appendDigits(long value) {
+        if (value >= 10) {
+            appendDigits(value / 10);
+        }
+        append((char) ('0' + value % 10));
+    }
+}
@@ -0,0 +1,196 @@
+package com.documenteditor.pdf;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Minimal streaming PDF 1.4 writer with no external dependencies.
+ * Pages are written as soon as they are added: each page's content stream
+ * is compressed and written with its page object, and only the byte offset
+ * of every object is kept for the cross-reference table, which is written
+ * by {@link #finish()}. Memory use is therefore one page plus eight bytes
+ * per object, whatever the number of pages.
+ *
+ * Object layout: 1 is the catalog, 2 the page tree, then one object per
+ * {@link StandardFont}, then a content stream and a page object per page.
+ */
+public class PdfWriter implements Closeable {
+    private static final int CATALOG = 1;
+    private static final int PAGES = 2;
+    private static final int FIRST_FONT = 3;
+
+    private final OutputStream out;
+    private final Deflater deflater;
+    private byte[] compressed;
+    private long position;
+    private long[] offsets;
+    private int objectCount;
+    private int[] pageObjects;
+    private int pageCount;
+    private boolean finished;
+
+    /**
+     * Start a PDF on the given stream and write the file header.
+     * @param out The destination; closed by {@link #close()}
+     * @throws IOException If the header cannot be written
+     */
+    public PdfWriter(OutputStream out) throws IOException {
+        this.out = new BufferedOutputStream(out, 1 << 16);
+        this.deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        this.compressed = new byte[8192];
+        this.offsets = new long[64];
+        this.pageObjects = new int[64];
+        this.objectCount = FIRST_FONT - 1 + StandardFont.values().length;
+
+        // The binary comment tells transfer tools the file is not text
+        write("%PDF-1.4\n");
+        write(new byte[] {'%', (byte) 0xE2, (byte) 0xE3, (byte) 0xCF, (byte) 0xD3, '\n'}, 0, 6);
+        for (StandardFont font : StandardFont.values()) {
+            beginObject(FIRST_FONT + font.ordinal());
+            write("<< /Type /Font /Subtype /Type1 /BaseFont /" + font.getBaseFont()
+                    + " /Encoding /WinAnsiEncoding >>\n");
+            endObject();
+        }
+    }
+
+    /**
+     * Write a page and release its content for reuse.
+     * @param content The page content
+     * @param width The page width in points
+     * @param height The page height in points
+     * @throws IOException If the page cannot be written
+     */
+    public void addPage(PdfContent content, int width, int height) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("PDF is already finished");
+        }
+        int length = compress(content.data(), content.length());
+        int contents = ++objectCount;
+        beginObject(contents);
+        write("<< /Length " + length + " /Filter /FlateDecode >>\nstream\n");
+        write(compressed, 0, length);
+        write("\nendstream\n");
+        endObject();
+
+        int page = ++objectCount;
+        beginObject(page);
+        StringBuilder fonts = new StringBuilder();
+        for (StandardFont font : StandardFont.values()) {
+            fonts.append(" /").append(font.getResourceName()).append(' ')
+                    .append(FIRST_FONT + font.ordinal()).append(" 0 R");
+        }
+        write("<< /Type /Page /Parent " + PAGES + " 0 R /MediaBox [0 0 " + width + " " + height + "]"
+                + " /Resources << /Font <<" + fonts + " >> >> /Contents " + contents + " 0 R >>\n");
+        endObject();
+
+        if (pageCount == pageObjects.length) {
+            pageObjects = Arrays.copyOf(pageObjects, pageCount * 2);
+        }
+        pageObjects[pageCount++] = page;
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * Write the page tree, catalog, cross-reference table and trailer.
+     * The stream is flushed but not closed; the compressor is released.
+     * @throws IOException If the file cannot be completed
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        deflater.end();
+
+        beginObject(PAGES);
+        write("<< /Type /Pages /Count " + pageCount + " /Kids [");
+        for (int i = 0; i < pageCount; i++) {
+            write((i % 16 == 0 ? "\n" : " ") + pageObjects[i] + " 0 R");
+        }
+        write(" ] >>\n");
+        endObject();
+
+        beginObject(CATALOG);
+        write("<< /Type /Catalog /Pages " + PAGES + " 0 R >>\n");
+        endObject();
+
+        long xref = position;
+        StringBuilder table = new StringBuilder(20 * (objectCount + 1) + 32);
+        table.append("xref\n0 ").append(objectCount + 1).append('\n');
+        table.append("0000000000 65535 f \n");
+        for (int i = 1; i <= objectCount; i++) {
+            String offset = Long.toString(offsets[i]);
+            table.append("0".repeat(10 - offset.length())).append(offset).append(" 00000 n \n");
+        }
+        write(table.toString());
+        write("trailer\n<< /Size " + (objectCount + 1) + " /Root " + CATALOG + " 0 R >>\n");
+        write("startxref\n" + xref + "\n%%EOF\n");
+        out.flush();
+    }
+
+    /**
+     * Give up on an unfinished document: release the compressor's native
+     * memory without writing anything more. The stream is left open.
+     */
+    public void discard() {
+        finished = true;
+        deflater.end();
+    }
+
+    /**
+     * Finish the document if needed and close the stream.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    private void beginObject(int number) throws IOException {
+        if (number >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, Math.max(offsets.length * 2, number + 1));
+        }
+        offsets[number] = position;
+        write(number + " 0 obj\n");
+    }
+
+    private void endObject() throws IOException {
+        write("endobj\n");
+    }
+
+    private int compress(byte[] data, int length) {
+        deflater.reset();
+        deflater.setInput(data, 0, length);
+        deflater.finish();
+        int total = 0;
+        while (!deflater.finished()) {
+            if (total == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            total += deflater.deflate(compressed, total, compressed.length - total);
+        }
+        return total;
+    }
+
+    private void write(String ascii) throws IOException {
+        byte[] bytes = ascii.getBytes(StandardCharsets.US_ASCII);
+        write(bytes, 0, bytes.length);
+    }
+
+    private void write(byte[] bytes, int offset, int length) throws IOException {
+        out.write(bytes, offset, length);
+        position += length;
+    }
+}
@@ -0,0 +1,146 @@
+package com.documenteditor.pdf;
+
+import com.documenteditor.text.LineBreaker;
+
+/**
+ * The standard Type 1 fonts used by {@link PdfWriter}, with their glyph
+ * widths from the Adobe font metrics (AFM) files.
+ * Every PDF viewer provides these fonts, so nothing needs to be embedded.
+ * Text is written in WinAnsiEncoding; widths are in 1/1000 of the font size.
+ */
+public enum StandardFont implements LineBreaker.Metrics {
+    HELVETICA("Helvetica", "F1", new short[] {
+        278, 278, 355, 556, 556, 889, 667, 191, 333, 333, 389, 584, 278, 333, 278, 278,
+        556, 556, 556, 556, 556, 556, 556, 556, 556, 556, 278, 278, 584, 584, 584, 556,
+        1015, 667, 667, 722, 722, 667, 611, 778, 722, 278, 500, 667, 556, 833, 722, 778,
+        667, 778, 722, 667, 611, 722, 667, 944, 667, 667, 611, 278, 278, 278, 469, 556,
+        333, 556, 556, 500, 556, 556, 278, 556, 556, 222, 222, 500, 222, 833, 556, 556,
+        556, 556, 333, 500, 278, 556, 500, 722, 500, 500, 500, 334, 260, 334, 584, 0,
+        556, 0, 222, 556, 333, 1000, 556, 556, 333, 1000, 667, 333, 1000, 0, 611, 0,
+        0, 222, 222, 333, 333, 350, 556, 1000, 333, 1000, 500, 333, 944, 0, 500, 667,
+        278, 333, 556, 556, 556, 556, 260, 556, 333, 737, 370, 556, 584, 333, 737, 333,
+        400, 584, 333, 333, 333, 556, 537, 278, 333, 333, 365, 556, 834, 834, 834, 611,
+        667, 667, 667, 667, 667, 667, 1000, 722, 667, 667, 667, 667, 278, 278, 278, 278,
+        722, 722, 778, 778, 778, 778, 778, 584, 778, 722, 722, 722, 722, 667, 667, 611,
+        556, 556, 556, 556, 556, 556, 889, 500, 556, 556, 556, 556, 278, 278, 278, 278,
+        556, 556, 556, 556, 556, 556, 556, 584, 611, 556, 556, 556, 556, 500, 556, 500
+    }),
+    HELVETICA_BOLD("Helvetica-Bold", "F2", new short[] {
+        278, 333, 474, 556, 556, 889, 722, 238, 333, 333, 389, 584, 278, 333, 278, 278,
+        556, 556, 556, 556, 556, 556, 556, 556, 556, 556, 333, 333, 584, 584, 584, 611,
+        975, 722, 722, 722, 722, 667, 611, 778, 722, 278, 556, 722, 611, 833, 722, 778,
+        667, 778, 722, 667, 611, 722, 667, 944, 667, 667, 611, 333, 278, 333, 584, 556,
+        333, 556, 611, 556, 611, 556, 333, 611, 611, 278, 278, 556, 278, 889, 611, 611,
+        611, 611, 389, 556, 333, 611, 556, 778, 556, 556, 500, 389, 280, 389, 584, 0,
+        556, 0, 278, 556, 500, 1000, 556, 556, 333, 1000, 667, 333, 1000, 0, 611, 0,
+        0, 278, 278, 500, 500, 350, 556, 1000, 333, 1000, 556, 333, 944, 0, 500, 667,
+        278, 333, 556, 556, 556, 556, 280, 556, 333, 737, 370, 556, 584, 333, 737, 333,
+        400, 584, 333, 333, 333, 611, 556, 278, 333, 333, 365, 556, 834, 834, 834, 611,
+        722, 722, 722, 722, 722, 722, 1000, 722, 667, 667, 667, 667, 278, 278, 278, 278,
+        722, 722, 778, 778, 778, 778, 778, 584, 778, 722, 722, 722, 722, 667, 667, 611,
+        556, 556, 556, 556, 556, 556, 889, 556, 556, 556, 556, 556, 278, 278, 278, 278,
+        611, 611, 611, 611, 611, 611, 611, 584, 611, 611, 611, 611, 611, 556, 611, 556
+    });
+
+    /** Code of the first entry in the width tables (the space). */
+    private static final int FIRST_CODE = 32;
+
+    private final String baseFont;
+    private final String resourceName;
+    private final short[] widths;
+
+    StandardFont(String baseFont, String resourceName, short[] widths) {
+        this.baseFont = baseFont;
+        this.resourceName = resourceName;
+        this.widths = widths;
+    }
+
+    public String getBaseFont() {
+        return baseFont;
+    }
+
+    /**
+     * Get the name the font is registered under in page resources.
+     * @return The resource name, e.g. F1
+     */
+    public String getResourceName() {
+        return resourceName;
+    }
+
+    /**
+     * Get the width of a WinAnsi character code.
+     * @param code The character code (0-255)
+     * @return The glyph width in 1/1000 of the font size
+     */
+    public int width(int code) {
+        int width = code < FIRST_CODE ? 0 : widths[code - FIRST_CODE];
+        // Unassigned codes are drawn as '?'
+        return width != 0 ? width : widths['?' - FIRST_CODE];
+    }
+
+    /**
+     * Get the width of a character.
+     * @param c The character
+     * @return The glyph width in 1/1000 of the font size
+     */
+    @Override
+    public int width(char c) {
+        return width(encode(c));
+    }
+
+    /**
+     * Measure a run of text.
+     * @param text The text to measure
+     * @param size The font size in points
+     * @return The width in points
+     */
+    public float stringWidth(CharSequence text, float size) {
+        long total = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            total += width(text.charAt(i));
+        }
+        return total * size / 1000f;
+    }
+
+    /**
+     * Map a character to its WinAnsiEncoding code.
+     * Characters the encoding cannot represent become '?'.
+     * @param c The character
+     * @return The code (0-255)
+     */
+    public static int encode(char c) {
+        if ((c >= 0x20 && c < 0x7F) || (c >= 0xA0 && c <= 0xFF)) {
+            return c;
+        }
+        return switch (c) {
+            case '\u20AC' -> 0x80;
+            case '\u201A' -> 0x82;
+            case '\u0192' -> 0x83;
+            case '\u201E' -> 0x84;
+            case '\u2026' -> 0x85;
+            case '\u2020' -> 0x86;
+            case '\u2021' -> 0x87;
+            case '\u02C6' -> 0x88;
+            case '\u2030' -> 0x89;
+            case '\u0160' -> 0x8A;
+            case '\u2039' -> 0x8B;
+            case '\u0152' -> 0x8C;
+            case '\u017D' -> 0x8E;
+            case '\u2018' -> 0x91;
+            case '\u2019' -> 0x92;
+            case '\u201C' -> 0x93;
+            case '\u201D' -> 0x94;
+            case '\u2022' -> 0x95;
+            case '\u2013' -> 0x96;
+            case '\u2014' -> 0x97;
+            case '\u02DC' -> 0x98;
+            case '\u2122' -> 0x99;
+            case '\u0161' -> 0x9A;
+            case '\u203A' -> 0x9B;
+            case '\u0153' -> 0x9C;
+            case '\u017E' -> 0x9E;
+            case '\u0178' -> 0x9F;
+            default -> '?';
+        };
+    }
+}
@@ -0,0 +1,147 @@
+package com.documenteditor.strategy;
+
+import com.documenteditor.text.Rope;
+import java.util.Iterator;
+
+/**
+ * STRATEGY PATTERN: Concrete Strategy
+ * Single-pass, allocation-free word counter that understands Unicode.
+ * Words are runs of characters between separators (all Unicode white space,
+ * including no-break spaces, plus the zero-width space) that contain at least
+ * one letter, digit or symbol; runs made only of punctuation are not counted.
+ * Han ideographs and kana are counted one word per character, as common word
+ * processors do, since CJK text is not space separated.
+ */
+public class UnicodeWordCountStrategy implements WordCountStrategy {
+    private static final byte SEPARATOR = 0;
+    private static final byte NEUTRAL = 1;
+    private static final byte WORD = 2;
+    private static final byte STANDALONE = 3;
+
+    /** Pre-computed classes for ASCII, the fast path for most text. */
+    private static final byte[] ASCII_CLASS = new byte[128];
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            ASCII_CLASS[c] = classify(c);
+        }
+    }
+
+    /** Packed scan state: word count in the low 32 bits, flags above. */
+    private static final long COUNTED = 1L << 32;
+    private static final int HIGH_SHIFT = 48;
+
+    @Override
+    public int countWords(String text) {
+        return countWords((CharSequence) text);
+    }
+
+    @Override
+    public int countWords(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+        long state = 0;
+        if (text instanceof Rope) {
+            for (Iterator<CharSequence> it = ((Rope) text).chunks(); it.hasNext(); ) {
+                state = scan(it.next(), state);
+            }
+        } else {
+            state = scan(text, state);
+        }
+        int words = (int) state;
+        // A trailing unpaired high surrogate still belongs to a word
+        if ((state >>> HIGH_SHIFT) != 0 && (state & COUNTED) == 0) {
+            words++;
+        }
+        return words;
+    }
+
+    /**
+     * Scan one chunk, carrying state across chunk boundaries so a rope can be
+     * counted leaf by leaf (surrogate pairs may straddle two leaves).
+     */
+    private static long scan(CharSequence s, long state) {
+        int words = (int) state;
+        boolean counted = (state & COUNTED) != 0;
+        char high = (char) (state >>> HIGH_SHIFT);
+
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            byte kind;
+            if (high != 0) {
+                char pending = high;
+                high = 0;
+                if (Character.isLowSurrogate(c)) {
+                    kind = classify(Character.toCodePoint(pending, c));
+                } else {
+                    // Unpaired high surrogate: treat it as part of a word, then handle c
+                    if (!counted) {
+                        counted = true;
+                        words++;
+                    }
+                    if (Character.isHighSurrogate(c)) {
+                        high = c;
+                        continue;
+                    }
+                    kind = c < 128 ? ASCII_CLASS[c] : classify(c);
+                }
+            } else if (c < 128) {
+                kind = ASCII_CLASS[c];
+            } else if (Character.isHighSurrogate(c)) {
+                high = c;
+                continue;
+            } else {
+                kind = classify(c);
+            }
+
+            switch (kind) {
+                case SEPARATOR:
+                    counted = false;
+                    break;
+                case WORD:
+                    if (!counted) {
+                        counted = true;
+                        words++;
+                    }
+                    break;
+                case STANDALONE:
+                    words++;
+                    counted = false;
+                    break;
+                default:
+                    // Punctuation and format characters neither start nor end a word
+                    break;
+            }
+        }
+        return (words & 0xFFFFFFFFL) | (counted ? COUNTED : 0) | ((long) high << HIGH_SHIFT);
+    }
+
+    private static byte classify(int codePoint) {
+        if (Character.isWhitespace(codePoint) || Character.isSpaceChar(codePoint) || codePoint == 0x200B) {
+            return SEPARATOR;
+        }
+        if (Character.isIdeographic(codePoint)) {
+            return STANDALONE;
+        }
+        switch (Character.getType(codePoint)) {
+            case Character.CONNECTOR_PUNCTUATION:
+            case Character.DASH_PUNCTUATION:
+            case Character.START_PUNCTUATION:
+            case Character.END_PUNCTUATION:
+            case Character.INITIAL_QUOTE_PUNCTUATION:
+            case Character.FINAL_QUOTE_PUNCTUATION:
+            case Character.OTHER_PUNCTUATION:
+            case Character.CONTROL:
+            case Character.FORMAT:
+                return NEUTRAL;
+            default:
+                break;
+        }
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        if (script == Character.UnicodeScript.HIRAGANA || script == Character.UnicodeScript.KATAKANA) {
+            return STANDALONE;
+        }
+        return WORD;
+    }
+}
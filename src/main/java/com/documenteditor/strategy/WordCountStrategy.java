@@ -11,4 +11,14 @@ public interface WordCountStrategy {
      * @return The number of words
      */
     int countWords(String text);
+
+    /**
+     * Count words in text that is not held in a String (e.g. a Rope).
+     * Strategies that can scan characters directly should override this.
+     * @param text The text to count words in
+     * @return The number of words
+     */
+    default int countWords(CharSequence text) {
+        return countWords(text == null ? null : text.toString());
+    }
 }
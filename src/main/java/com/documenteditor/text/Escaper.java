@@ -0,0 +1,238 @@
+package com.documenteditor.text;
+
+import java.util.Iterator;
+
+/**
+ * Single-pass escaping for the output formats.
+ * Each mode maps the ASCII characters it must escape to a replacement in a
+ * lookup table, and everything else is copied through unchanged. Text is
+ * scanned once: runs of plain characters are appended in bulk and only the
+ * special characters are replaced. {@link #escape(String)} returns its
+ * argument itself when nothing needs escaping, and ropes are escaped chunk
+ * by chunk without being flattened.
+ *
+ * Markdown also has block markers that only count at the start of a line
+ * (after optional indentation): list bullets, ordered list numbers, quotes
+ * and the like. A second table holds those, and a small per-line state
+ * tracks whether the scan is still at a line start or in a list number.
+ */
+public enum Escaper {
+    /** HTML element content: markup characters and both quotes. */
+    HTML(table("&&amp;", "<&lt;", ">&gt;", "\"&quot;", "'&#39;")),
+    /** HTML attribute values: as HTML, plus white space that attribute normalisation would collapse. */
+    ATTRIBUTE(table("&&amp;", "<&lt;", ">&gt;", "\"&quot;", "'&#39;", "\t&#9;", "\n&#10;", "\r&#13;")),
+    /** JSON string content: quote, backslash and every control character. */
+    JSON(jsonTable()),
+    /**
+     * Markdown text: backslash-escapes the characters that start emphasis,
+     * code, links, HTML, headings and tables anywhere, and list, quote,
+     * image and setext markers and the dot or parenthesis of an ordered
+     * list number at the start of a line.
+     */
+    MARKDOWN(backslashed("\\`*_[]<>#|"), backslashed("-+=~!")),
+    /** Markdown link targets: percent-encodes what would end or break the target. */
+    URL(percentEncoded(" \"%'()<>\\`"));
+
+    /** Line state: only indentation seen so far on this line. */
+    private static final int LINE_START = 0;
+    /** Line state: past the line start; values between hold the digits of a list number. */
+    private static final int INLINE = -1;
+    /** CommonMark ordered list numbers have at most nine digits. */
+    private static final int MAX_LIST_DIGITS = 9;
+
+    private final String[] replacements;
+    private final String[] lineStart;
+
+    Escaper(String[] replacements) {
+        this(replacements, null);
+    }
+
+    Escaper(String[] replacements, String[] lineStart) {
+        this.replacements = replacements;
+        this.lineStart = lineStart;
+    }
+
+    /**
+     * Escape a string.
+     * @param text The text to escape
+     * @return The escaped text, or {@code text} itself if nothing needed escaping
+     */
+    public String escape(String text) {
+        if (lineStart != null) {
+            return needsEscaping(text) ? escape(text, new StringBuilder(text.length() + 16)).toString() : text;
+        }
+        int first = indexOfSpecial(text, 0, text.length());
+        if (first < 0) {
+            return text;
+        }
+        StringBuilder out = new StringBuilder(text.length() + 16);
+        out.append(text, 0, first);
+        return append(text, first, text.length(), out).toString();
+    }
+
+    /**
+     * Escape text straight into a buffer.
+     * @param text The text to escape; ropes are read chunk by chunk
+     * @param out The buffer to append to
+     * @return The buffer, for chaining
+     */
+    public StringBuilder escape(CharSequence text, StringBuilder out) {
+        if (lineStart != null) {
+            if (text instanceof Rope) {
+                int state = LINE_START;
+                for (Iterator<CharSequence> it = ((Rope) text).chunks(); it.hasNext(); ) {
+                    state = appendLines(it.next(), state, out);
+                }
+            } else {
+                appendLines(text, LINE_START, out);
+            }
+            return out;
+        }
+        if (text instanceof Rope) {
+            for (Iterator<CharSequence> it = ((Rope) text).chunks(); it.hasNext(); ) {
+                CharSequence chunk = it.next();
+                append(chunk, 0, chunk.length(), out);
+            }
+            return out;
+        }
+        return append(text, 0, text.length(), out);
+    }
+
+    /**
+     * Check whether text would change when escaped.
+     * @param text The text to check
+     * @return true if it contains a character this mode escapes
+     */
+    public boolean needsEscaping(CharSequence text) {
+        if (lineStart != null) {
+            int state = LINE_START;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (lineReplacement(c, state) != null) {
+                    return true;
+                }
+                state = nextState(c, state);
+            }
+            return false;
+        }
+        return indexOfSpecial(text, 0, text.length()) >= 0;
+    }
+
+    /**
+     * Escape text for a mode with line-start markers.
+     * @param state The line state at the start of the text
+     * @return The line state at its end, for the next rope chunk
+     */
+    private int appendLines(CharSequence text, int state, StringBuilder out) {
+        int run = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String replacement = lineReplacement(c, state);
+            if (replacement != null) {
+                out.append(text, run, i).append(replacement);
+                run = i + 1;
+            }
+            state = nextState(c, state);
+        }
+        out.append(text, run, text.length());
+        return state;
+    }
+
+    /**
+     * The replacement for a character in the given line state, or null.
+     */
+    private String lineReplacement(char c, int state) {
+        if (c >= 128) {
+            return null;
+        }
+        if (state == LINE_START && lineStart[c] != null) {
+            return lineStart[c];
+        }
+        if (state > 0 && (c == '.' || c == ')')) {
+            return "\\" + c;
+        }
+        return replacements[c];
+    }
+
+    private static int nextState(char c, int state) {
+        if (c == '\n' || c == '\r') {
+            return LINE_START;
+        }
+        if (state == LINE_START && (c == ' ' || c == '\t')) {
+            return LINE_START;
+        }
+        if (c >= '0' && c <= '9' && state != INLINE && state < MAX_LIST_DIGITS) {
+            return state + 1;
+        }
+        return INLINE;
+    }
+
+    private StringBuilder append(CharSequence text, int from, int to, StringBuilder out) {
+        int run = from;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            String replacement = c < 128 ? replacements[c] : null;
+            if (replacement != null) {
+                out.append(text, run, i).append(replacement);
+                run = i + 1;
+            }
+        }
+        return out.append(text, run, to);
+    }
+
+    private int indexOfSpecial(CharSequence text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < 128 && replacements[c] != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Build a table from entries whose first character is replaced by the rest.
+     */
+    private static String[] table(String... entries) {
+        String[] table = new String[128];
+        for (String entry : entries) {
+            table[entry.charAt(0)] = entry.substring(1);
+        }
+        return table;
+    }
+
+    /**
+     * Build a table that puts a backslash before each of the given characters.
+     */
+    private static String[] backslashed(String characters) {
+        String[] table = new String[128];
+        for (char c : characters.toCharArray()) {
+            table[c] = "\\" + c;
+        }
+        return table;
+    }
+
+    /**
+     * Build a table that percent-encodes the given characters and every
+     * control character.
+     */
+    private static String[] percentEncoded(String characters) {
+        String[] table = new String[128];
+        for (char c = 0; c < 128; c++) {
+            if (c < 0x20 || c == 0x7F || characters.indexOf(c) >= 0) {
+                table[c] = String.format("%%%02X", (int) c);
+            }
+        }
+        return table;
+    }
+
+    private static String[] jsonTable() {
+        String[] table = table("\"\\\"", "\\\\\\", "\b\\b", "\f\\f", "\n\\n", "\r\\r", "\t\\t");
+        for (char c = 0; c < 0x20; c++) {
+            if (table[c] == null) {
+                table[c] = String.format("\\u%04x", (int) c);
+            }
+        }
+        return table;
+    }
+}
@@ -0,0 +1,423 @@
+package com.documenteditor.text;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Breaks paragraph text into lines of a maximum width.
+ * Words are runs of non-white-space characters; lines are joined with
+ * single spaces. Two strategies are available: GREEDY fills each line as
+ * far as it goes, OPTIMAL chooses the breaks that minimise the sum of the
+ * squared slack of every line but the last (the Knuth-Plass total-fit idea
+ * without hyphenation), giving an evener right edge. FIXED_WIDTH is the
+ * greedy filling of the original plain-text export, kept for its exact
+ * output.
+ *
+ * The text is copied once into a reusable buffer and measured over char
+ * ranges, so laying out a paragraph creates no intermediate strings and,
+ * once the buffers have grown, only allocates the small result. Results for
+ * a {@link Rope} are cached by rope identity: ropes are immutable and every
+ * edit of a paragraph produces a new one, so a cached layout always belongs
+ * to exactly one paragraph version and disappears with it.
+ *
+ * Instances are not thread-safe; use one per visitor.
+ */
+public final class LineBreaker {
+    /**
+     * How break positions are chosen.
+     */
+    public enum Mode {
+        GREEDY,
+        OPTIMAL,
+        /**
+         * Greedy filling as the original {@code split("\\s+")} loop did it:
+         * only the {@code \s} characters separate words, every word is
+         * counted with a trailing space, text starting with white space
+         * begins with an empty word, empty text is one blank line, and lines
+         * are trimmed as by {@link String#trim()}. Long words are never
+         * split.
+         */
+        FIXED_WIDTH
+    }
+
+    /**
+     * Advance width of a character, in any unit shared with the line width.
+     */
+    public interface Metrics {
+        int width(char c);
+    }
+
+    /** Every character is one column wide, for fixed-width text output. */
+    public static final Metrics MONOSPACE = c -> 1;
+
+    private static final Map<Rope, Layout[]> CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final int CACHED_CONFIGURATIONS = 2;
+
+    private final Metrics metrics;
+    private final Mode mode;
+    private final boolean splitLongWords;
+    private final int spaceWidth;
+
+    // Reusable working storage
+    private char[] text = new char[256];
+    private int length;
+    private int[] wordStart = new int[64];
+    private int[] wordEnd = new int[64];
+    private int[] wordWidth = new int[64];
+    private boolean[] forcedBreak = new boolean[64];
+    private int wordCount;
+    private long[] cost = new long[65];
+    private int[] previous = new int[65];
+
+    /**
+     * @param metrics The character widths
+     * @param mode The breaking strategy
+     * @param splitLongWords Whether words wider than a line are split across
+     *                       lines; otherwise they overflow on a line of their own
+     */
+    public LineBreaker(Metrics metrics, Mode mode, boolean splitLongWords) {
+        this.metrics = metrics;
+        this.mode = mode;
+        this.splitLongWords = splitLongWords;
+        this.spaceWidth = metrics.width(' ');
+    }
+
+    /**
+     * Break text into lines. The text stays loaded for {@link #appendLine}
+     * until the next call.
+     * @param content The text to break
+     * @param maxWidth The maximum line width, in the units of the metrics
+     * @return The line positions
+     */
+    public Layout layout(CharSequence content, int maxWidth) {
+        load(content);
+        Rope rope = content instanceof Rope ? (Rope) content : null;
+        if (rope != null) {
+            Layout[] cached = CACHE.get(rope);
+            if (cached != null) {
+                for (Layout layout : cached) {
+                    if (layout != null && layout.matches(this, maxWidth)) {
+                        return layout;
+                    }
+                }
+            }
+        }
+
+        int[] bounds;
+        if (mode == Mode.FIXED_WIDTH) {
+            findFixedWidthWords();
+            bounds = breakFixedWidth(maxWidth);
+        } else {
+            findWords(maxWidth);
+            bounds = mode == Mode.OPTIMAL && wordCount > 1 ? breakOptimal(maxWidth) : breakGreedy(maxWidth);
+        }
+        Layout layout = new Layout(this, maxWidth, bounds);
+
+        if (rope != null) {
+            // Keep the most recent configurations; arrays are replaced, never modified
+            CACHE.compute(rope, (key, cached) -> {
+                Layout[] entries = new Layout[CACHED_CONFIGURATIONS];
+                if (cached != null) {
+                    System.arraycopy(cached, 0, entries, 1, entries.length - 1);
+                }
+                entries[0] = layout;
+                return entries;
+            });
+        }
+        return layout;
+    }
+
+    /**
+     * Append one line of the most recently laid out text, with the white
+     * space between words collapsed to single spaces.
+     * @param layout The layout returned for that text
+     * @param line The line number
+     * @param out The builder to append to
+     * @return The same builder
+     */
+    public StringBuilder appendLine(Layout layout, int line, StringBuilder out) {
+        boolean space = false;
+        for (int i = layout.start(line), end = layout.end(line); i < end; i++) {
+            char c = text[i];
+            if (mode == Mode.FIXED_WIDTH ? isSpace(c) : Character.isWhitespace(c)) {
+                space = true;
+            } else {
+                if (space) {
+                    out.append(' ');
+                    space = false;
+                }
+                out.append(c);
+            }
+        }
+        return out;
+    }
+
+    // Loading and measuring
+
+    private void load(CharSequence content) {
+        int n = content.length();
+        if (text.length < n) {
+            text = new char[Math.max(n, text.length * 2)];
+        }
+        if (content instanceof Rope) {
+            int offset = 0;
+            for (Iterator<CharSequence> it = ((Rope) content).chunks(); it.hasNext(); ) {
+                CharSequence chunk = it.next();
+                copy(chunk, offset);
+                offset += chunk.length();
+            }
+        } else {
+            copy(content, 0);
+        }
+        length = n;
+    }
+
+    private void copy(CharSequence chunk, int offset) {
+        if (chunk instanceof String) {
+            ((String) chunk).getChars(0, chunk.length(), text, offset);
+        } else {
+            for (int i = 0, n = chunk.length(); i < n; i++) {
+                text[offset + i] = chunk.charAt(i);
+            }
+        }
+    }
+
+    private void findWords(int maxWidth) {
+        wordCount = 0;
+        int i = 0;
+        while (i < length) {
+            while (i < length && Character.isWhitespace(text[i])) {
+                i++;
+            }
+            if (i == length) {
+                break;
+            }
+            int start = i;
+            int width = 0;
+            while (i < length && !Character.isWhitespace(text[i])) {
+                int w = metrics.width(text[i]);
+                if (splitLongWords && width + w > maxWidth && i > start) {
+                    // Cut the word here; the piece must end its line
+                    addWord(start, i, width, true);
+                    start = i;
+                    width = 0;
+                }
+                width += w;
+                i++;
+            }
+            addWord(start, i, width, false);
+        }
+    }
+
+    /**
+     * Find the words as {@code split("\\s+")} would: a leading empty word if
+     * the text starts with white space, or a single empty word for empty text.
+     */
+    private void findFixedWidthWords() {
+        wordCount = 0;
+        if (length == 0) {
+            addWord(0, 0, 0, false);
+            return;
+        }
+        int i = 0;
+        if (isSpace(text[0])) {
+            while (i < length && isSpace(text[i])) {
+                i++;
+            }
+            if (i == length) {
+                return;
+            }
+            addWord(0, 0, 0, false);
+        }
+        while (i < length) {
+            int start = i;
+            int width = 0;
+            while (i < length && !isSpace(text[i])) {
+                width += metrics.width(text[i]);
+                i++;
+            }
+            addWord(start, i, width, false);
+            while (i < length && isSpace(text[i])) {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * The white space of {@code \s}: space, tab, line feed, vertical tab,
+     * form feed and carriage return.
+     */
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private void addWord(int start, int end, int width, boolean forced) {
+        if (wordCount == wordStart.length) {
+            int capacity = wordCount * 2;
+            wordStart = Arrays.copyOf(wordStart, capacity);
+            wordEnd = Arrays.copyOf(wordEnd, capacity);
+            wordWidth = Arrays.copyOf(wordWidth, capacity);
+            forcedBreak = Arrays.copyOf(forcedBreak, capacity);
+        }
+        wordStart[wordCount] = start;
+        wordEnd[wordCount] = end;
+        wordWidth[wordCount] = width;
+        forcedBreak[wordCount] = forced;
+        wordCount++;
+    }
+
+    // Breaking
+
+    private int[] breakGreedy(int maxWidth) {
+        int[] bounds = new int[Math.max(2, wordCount) * 2];
+        int lines = 0;
+        int first = 0;
+        int width = 0;
+        for (int i = 0; i < wordCount; i++) {
+            if (i > first && width + spaceWidth + wordWidth[i] > maxWidth) {
+                bounds[lines * 2] = wordStart[first];
+                bounds[lines * 2 + 1] = wordEnd[i - 1];
+                lines++;
+                first = i;
+                width = 0;
+            }
+            width += (i > first ? spaceWidth : 0) + wordWidth[i];
+            if (forcedBreak[i]) {
+                bounds[lines * 2] = wordStart[first];
+                bounds[lines * 2 + 1] = wordEnd[i];
+                lines++;
+                first = i + 1;
+                width = 0;
+            }
+        }
+        if (first < wordCount) {
+            bounds[lines * 2] = wordStart[first];
+            bounds[lines * 2 + 1] = wordEnd[wordCount - 1];
+            lines++;
+        }
+        return Arrays.copyOf(bounds, lines * 2);
+    }
+
+    /**
+     * Greedy breaking with every word followed by a space. A first word
+     * that does not fit is preceded by a blank line, as it always was.
+     */
+    private int[] breakFixedWidth(int maxWidth) {
+        int[] bounds = new int[(wordCount + 1) * 2];
+        int lines = 0;
+        int first = 0;
+        int width = 0;
+        for (int i = 0; i < wordCount; i++) {
+            if (width + wordWidth[i] + spaceWidth > maxWidth) {
+                int start = wordStart[first];
+                lines = addTrimmedLine(bounds, lines, start, i > first ? wordEnd[i - 1] : start);
+                first = i;
+                width = 0;
+            }
+            width += wordWidth[i] + spaceWidth;
+        }
+        if (first < wordCount) {
+            lines = addTrimmedLine(bounds, lines, wordStart[first], wordEnd[wordCount - 1]);
+        }
+        return Arrays.copyOf(bounds, lines * 2);
+    }
+
+    private int addTrimmedLine(int[] bounds, int lines, int start, int end) {
+        while (start < end && text[start] <= ' ') {
+            start++;
+        }
+        while (end > start && text[end - 1] <= ' ') {
+            end--;
+        }
+        bounds[lines * 2] = start;
+        bounds[lines * 2 + 1] = end;
+        return lines + 1;
+    }
+
+    /**
+     * Total-fit breaking by dynamic programming over word positions.
+     * cost[j] is the least cost of setting the first j words; a line of
+     * words i..j-1 costs its squared slack, except the last line, which is
+     * free. Only as many candidate starts as fit on one line are tried, so
+     * this runs in O(words x words per line).
+     */
+    private int[] breakOptimal(int maxWidth) {
+        if (cost.length <= wordCount) {
+            cost = new long[wordCount * 2 + 1];
+            previous = new int[wordCount * 2 + 1];
+        }
+        cost[0] = 0;
+        for (int j = 1; j <= wordCount; j++) {
+            cost[j] = Long.MAX_VALUE;
+            int width = -spaceWidth;
+            for (int i = j - 1; i >= 0; i--) {
+                if (i < j - 1 && forcedBreak[i]) {
+                    break;
+                }
+                width += spaceWidth + wordWidth[i];
+                if (width > maxWidth && i < j - 1) {
+                    break;
+                }
+                long slack = Math.max(0, maxWidth - width);
+                long lineCost = j == wordCount || forcedBreak[j - 1] ? 0 : slack * slack;
+                if (cost[i] != Long.MAX_VALUE && cost[i] + lineCost < cost[j]) {
+                    cost[j] = cost[i] + lineCost;
+                    previous[j] = i;
+                }
+            }
+        }
+
+        int lines = 0;
+        for (int j = wordCount; j > 0; j = previous[j]) {
+            lines++;
+        }
+        int[] bounds = new int[lines * 2];
+        int line = lines;
+        for (int j = wordCount; j > 0; j = previous[j]) {
+            line--;
+            bounds[line * 2] = wordStart[previous[j]];
+            bounds[line * 2 + 1] = wordEnd[j - 1];
+        }
+        return bounds;
+    }
+
+    /**
+     * Line positions for one text: the char range of each line, from the
+     * start of its first word to the end of its last word.
+     */
+    public static final class Layout {
+        private final Metrics metrics;
+        private final Mode mode;
+        private final boolean splitLongWords;
+        private final int maxWidth;
+        private final int[] bounds;
+
+        private Layout(LineBreaker breaker, int maxWidth, int[] bounds) {
+            this.metrics = breaker.metrics;
+            this.mode = breaker.mode;
+            this.splitLongWords = breaker.splitLongWords;
+            this.maxWidth = maxWidth;
+            this.bounds = bounds;
+        }
+
+        public int lineCount() {
+            return bounds.length / 2;
+        }
+
+        public int start(int line) {
+            return bounds[line * 2];
+        }
+
+        public int end(int line) {
+            return bounds[line * 2 + 1];
+        }
+
+        private boolean matches(LineBreaker breaker, int width) {
+            return metrics == breaker.metrics && mode == breaker.mode
+                    && splitLongWords == breaker.splitLongWords && maxWidth == width;
+        }
+    }
+}
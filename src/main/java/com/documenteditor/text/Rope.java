@@ -0,0 +1,365 @@
+package com.documenteditor.text;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Immutable rope used as the text storage of paragraphs and headlines.
+ * Text is kept in short leaf chunks under a height-balanced (AVL) tree, so
+ * insert, delete and substring by offset run in O(log n) and share every
+ * untouched chunk with the original rope instead of copying the whole buffer.
+ */
+public final class Rope implements CharSequence {
+    /** Maximum number of characters stored in a single leaf chunk. */
+    static final int LEAF_SIZE = 512;
+
+    public static final Rope EMPTY = new Rope(null);
+
+    private final Node root;
+
+    private Rope(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Create a rope holding the given text.
+     * @param text The initial text (null is treated as empty)
+     * @return A balanced rope over the text
+     */
+    public static Rope of(CharSequence text) {
+        if (text instanceof Rope) {
+            return (Rope) text;
+        }
+        if (text == null || text.length() == 0) {
+            return EMPTY;
+        }
+        return new Rope(build(text.toString(), 0, text.length()));
+    }
+
+    @Override
+    public int length() {
+        return root == null ? 0 : root.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length());
+        }
+        Node node = root;
+        while (node instanceof Branch) {
+            Branch branch = (Branch) node;
+            if (index < branch.left.length) {
+                node = branch.left;
+            } else {
+                index -= branch.left.length;
+                node = branch.right;
+            }
+        }
+        return ((Leaf) node).text.charAt(index);
+    }
+
+    @Override
+    public Rope subSequence(int start, int end) {
+        checkRange(start, end);
+        if (start == 0 && end == length()) {
+            return this;
+        }
+        Node[] tail = split(root, start);
+        return new Rope(split(tail[1], end - start)[0]);
+    }
+
+    /**
+     * Insert text at the given offset.
+     * @param offset The character offset to insert at
+     * @param text The text to insert
+     * @return A new rope containing the inserted text
+     */
+    public Rope insert(int offset, CharSequence text) {
+        checkRange(offset, offset);
+        Rope inserted = of(text);
+        if (inserted.root == null) {
+            return this;
+        }
+        Node[] parts = split(root, offset);
+        return new Rope(join(join(parts[0], inserted.root), parts[1]));
+    }
+
+    /**
+     * Delete the characters in the range [start, end).
+     * @param start The first offset to delete
+     * @param end The offset after the last deleted character
+     * @return A new rope without the deleted range
+     */
+    public Rope delete(int start, int end) {
+        checkRange(start, end);
+        if (start == end) {
+            return this;
+        }
+        Node[] head = split(root, start);
+        Node[] tail = split(head[1], end - start);
+        return new Rope(join(head[0], tail[1]));
+    }
+
+    /**
+     * Concatenate another rope to the end of this one.
+     * @param other The text to append
+     * @return A new rope holding both texts
+     */
+    public Rope append(CharSequence other) {
+        Rope appended = of(other);
+        if (appended.root == null) {
+            return this;
+        }
+        return new Rope(join(root, appended.root));
+    }
+
+    /**
+     * Iterate over the leaf chunks in order without copying them.
+     * @return An iterator of the text chunks making up this rope
+     */
+    public Iterator<CharSequence> chunks() {
+        return new ChunkIterator(root);
+    }
+
+    /**
+     * Stream the characters of this rope in order, one leaf at a time.
+     * @return A primitive iterator over the characters
+     */
+    public PrimitiveIterator.OfInt charIterator() {
+        return new CharIterator(root);
+    }
+
+    @Override
+    public IntStream chars() {
+        return StreamSupport.intStream(
+                Spliterators.spliterator(charIterator(), length(), Spliterator.ORDERED), false);
+    }
+
+    /**
+     * Append the whole text to a StringBuilder chunk by chunk.
+     * @param sb The builder to append to
+     * @return The same builder
+     */
+    public StringBuilder appendTo(StringBuilder sb) {
+        sb.ensureCapacity(sb.length() + length());
+        for (Iterator<CharSequence> it = chunks(); it.hasNext(); ) {
+            sb.append(it.next());
+        }
+        return sb;
+    }
+
+    /**
+     * Write the whole text to an Appendable chunk by chunk.
+     * @param out The destination
+     * @throws IOException If the destination fails
+     */
+    public void appendTo(Appendable out) throws IOException {
+        for (Iterator<CharSequence> it = chunks(); it.hasNext(); ) {
+            out.append(it.next());
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (root instanceof Leaf) {
+            return ((Leaf) root).text;
+        }
+        return appendTo(new StringBuilder(length())).toString();
+    }
+
+    private void checkRange(int start, int end) {
+        if (start < 0 || end > length() || start > end) {
+            throw new IndexOutOfBoundsException(
+                    "Range [" + start + ", " + end + ") out of bounds for length " + length());
+        }
+    }
+
+    // Tree construction and balancing
+
+    private static Node build(String text, int start, int end) {
+        int length = end - start;
+        if (length <= LEAF_SIZE) {
+            return new Leaf(text.substring(start, end));
+        }
+        int middle = start + length / 2;
+        return new Branch(build(text, start, middle), build(text, middle, end));
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    /**
+     * Split a tree at the given offset.
+     * @return A two-element array with the left and right parts (either may be null)
+     */
+    private static Node[] split(Node node, int offset) {
+        if (node == null) {
+            return new Node[] {null, null};
+        }
+        if (offset <= 0) {
+            return new Node[] {null, node};
+        }
+        if (offset >= node.length) {
+            return new Node[] {node, null};
+        }
+        if (node instanceof Leaf) {
+            String text = ((Leaf) node).text;
+            return new Node[] {new Leaf(text.substring(0, offset)), new Leaf(text.substring(offset))};
+        }
+        Branch branch = (Branch) node;
+        if (offset < branch.left.length) {
+            Node[] parts = split(branch.left, offset);
+            return new Node[] {parts[0], join(parts[1], branch.right)};
+        }
+        Node[] parts = split(branch.right, offset - branch.left.length);
+        return new Node[] {join(branch.left, parts[0]), parts[1]};
+    }
+
+    /**
+     * Concatenate two trees, keeping the result height-balanced.
+     * Runs in O(|height(left) - height(right)|).
+     */
+    private static Node join(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left instanceof Leaf && right instanceof Leaf
+                && left.length + right.length <= LEAF_SIZE) {
+            return new Leaf(((Leaf) left).text + ((Leaf) right).text);
+        }
+        int diff = left.height - right.height;
+        if (diff > 1) {
+            Branch branch = (Branch) left;
+            return rebalance(branch.left, join(branch.right, right));
+        }
+        if (diff < -1) {
+            Branch branch = (Branch) right;
+            return rebalance(join(left, branch.left), branch.right);
+        }
+        return new Branch(left, right);
+    }
+
+    private static Node rebalance(Node left, Node right) {
+        int diff = height(left) - height(right);
+        if (diff > 1) {
+            Branch l = (Branch) left;
+            if (height(l.left) >= height(l.right)) {
+                return new Branch(l.left, new Branch(l.right, right));
+            }
+            Branch lr = (Branch) l.right;
+            return new Branch(new Branch(l.left, lr.left), new Branch(lr.right, right));
+        }
+        if (diff < -1) {
+            Branch r = (Branch) right;
+            if (height(r.right) >= height(r.left)) {
+                return new Branch(new Branch(left, r.left), r.right);
+            }
+            Branch rl = (Branch) r.left;
+            return new Branch(new Branch(left, rl.left), new Branch(rl.right, r.right));
+        }
+        return new Branch(left, right);
+    }
+
+    private abstract static class Node {
+        final int length;
+        final int height;
+
+        Node(int length, int height) {
+            this.length = length;
+            this.height = height;
+        }
+    }
+
+    private static final class Leaf extends Node {
+        final String text;
+
+        Leaf(String text) {
+            super(text.length(), 1);
+            this.text = text;
+        }
+    }
+
+    private static final class Branch extends Node {
+        final Node left;
+        final Node right;
+
+        Branch(Node left, Node right) {
+            super(left.length + right.length, Math.max(left.height, right.height) + 1);
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    /**
+     * In-order walk over the leaves using an explicit stack of O(log n) depth.
+     */
+    private static class ChunkIterator implements Iterator<CharSequence> {
+        private final ArrayDeque<Node> stack = new ArrayDeque<>();
+
+        ChunkIterator(Node root) {
+            if (root != null) {
+                stack.push(root);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public CharSequence next() {
+            if (stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node node = stack.pop();
+            while (node instanceof Branch) {
+                Branch branch = (Branch) node;
+                stack.push(branch.right);
+                node = branch.left;
+            }
+            return ((Leaf) node).text;
+        }
+    }
+
+    private static final class CharIterator implements PrimitiveIterator.OfInt {
+        private final ChunkIterator chunks;
+        private CharSequence chunk = "";
+        private int position;
+
+        CharIterator(Node root) {
+            this.chunks = new ChunkIterator(root);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < chunk.length() || chunks.hasNext();
+        }
+
+        @Override
+        public int nextInt() {
+            if (position >= chunk.length()) {
+                chunk = chunks.next();
+                position = 0;
+            }
+            return chunk.charAt(position++);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.documenteditor.visitor;
+
+import com.documenteditor.model.DocumentElement;
+
+/**
+ * A step in a streaming export pipeline.
+ * A {@link TextExportVisitor} calls its stages at structural points of the
+ * output, so decorators can add or rewrite text while it streams instead of
+ * post-processing the finished string. Every hook works on the output buffer
+ * before that part is written; stages run in list order, so a later stage
+ * sees what earlier ones added.
+ *
+ * Stages are shared by the visitors forked for a parallel traversal and
+ * must therefore be stateless (or thread-safe).
+ */
+public interface ExportStage {
+    /**
+     * Called just before the document head is closed (HTML only).
+     * @param out The output buffer to append to
+     */
+    default void onHeadEnd(StringBuilder out) {
+    }
+
+    /**
+     * Called after the header, before the first element.
+     * @param out The output buffer to append to
+     */
+    default void onBodyStart(StringBuilder out) {
+    }
+
+    /**
+     * Called after an element has been rendered.
+     * @param element The element that was rendered
+     * @param out The output buffer; the element's text starts at {@code start}
+     * @param start The offset of the element's text in the buffer
+     */
+    default void onElement(DocumentElement element, StringBuilder out, int start) {
+    }
+
+    /**
+     * Called after the last element, before the footer.
+     * @param out The output buffer to append to
+     */
+    default void onBodyEnd(StringBuilder out) {
+    }
+
+    /**
+     * Rewrite a finished part of the output (the header, one element or
+     * the footer) in place, just before it is written.
+     * @param out The output buffer
+     * @param start The offset where the part begins; it runs to the end of the buffer
+     */
+    default void process(StringBuilder out, int start) {
+    }
+}
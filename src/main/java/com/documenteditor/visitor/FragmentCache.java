@@ -0,0 +1,221 @@
+package com.documenteditor.visitor;
+
+import com.documenteditor.model.Document;
+import com.documenteditor.model.DocumentElement;
+import com.documenteditor.model.LeafElement;
+import com.documenteditor.observer.DocumentChangeEvent;
+import com.documenteditor.observer.DocumentObserver;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * OBSERVER PATTERN: Concrete Observer
+ * Cache of rendered element fragments, so re-exporting a document after a
+ * small edit only renders the elements that changed.
+ * Fragments are keyed by element identity and output format and stamped with
+ * the element version; stale entries are dropped from change notifications
+ * and, for elements edited while not observed, by the version check.
+ * The cache is bounded by the total number of cached characters and evicts
+ * the least recently used fragments first. It is safe to share between the
+ * threads of a parallel export.
+ */
+public class FragmentCache implements DocumentObserver {
+    private static final long DEFAULT_MAX_CHARACTERS = 16L * 1024 * 1024;
+
+    private final long maxCharacters;
+    private final LinkedHashMap<Key, Fragment> fragments;
+    private final Set<Class<?>> formats;
+    private Document document;
+    private long characters;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public FragmentCache() {
+        this(DEFAULT_MAX_CHARACTERS);
+    }
+
+    /**
+     * @param maxCharacters The maximum number of characters to keep cached
+     */
+    public FragmentCache(long maxCharacters) {
+        this.maxCharacters = maxCharacters;
+        this.fragments = new LinkedHashMap<>(256, 0.75f, true);
+        this.formats = new HashSet<>();
+    }
+
+    /**
+     * Start following a document's changes, dropping everything cached for
+     * a previously followed document.
+     * @param document The document whose exports will use this cache
+     */
+    public synchronized void attachTo(Document document) {
+        detach();
+        this.document = document;
+        document.attach(this);
+    }
+
+    /**
+     * Stop following the current document and clear the cache.
+     */
+    public synchronized void detach() {
+        if (document != null) {
+            document.detach(this);
+            document = null;
+        }
+        clear();
+    }
+
+    /**
+     * Look up the fragment for an element in the given format.
+     * @param element The element to look up
+     * @param format The visitor class that renders the format
+     * @return The cached text, or null if it is missing or out of date
+     */
+    public synchronized String get(DocumentElement element, Class<?> format) {
+        Key key = new Key(element, format);
+        Fragment fragment = fragments.get(key);
+        if (fragment != null && fragment.version == element.getVersion()) {
+            hits++;
+            return fragment.text;
+        }
+        if (fragment != null) {
+            remove(key);
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Store the fragment rendered for an element.
+     * Only versioned leaf elements are cached; composites may change
+     * without a version bump of their own.
+     * @param element The element that was rendered
+     * @param format The visitor class that rendered it
+     * @param version The element version the text was rendered from
+     * @param text The rendered text
+     */
+    public synchronized void put(DocumentElement element, Class<?> format, long version, String text) {
+        if (!(element instanceof LeafElement) || text.length() > maxCharacters) {
+            return;
+        }
+        formats.add(format);
+        Fragment previous = fragments.put(new Key(element, format), new Fragment(version, text));
+        if (previous != null) {
+            characters -= previous.text.length();
+        }
+        characters += text.length();
+        evict();
+    }
+
+    /**
+     * Drop every fragment cached for an element.
+     * @param element The element that changed
+     */
+    public synchronized void invalidate(DocumentElement element) {
+        for (Class<?> format : formats) {
+            remove(new Key(element, format));
+        }
+    }
+
+    public synchronized void clear() {
+        fragments.clear();
+        characters = 0;
+    }
+
+    @Override
+    public void update(Document document) {
+        // Entries are invalidated from the fine-grained events
+    }
+
+    @Override
+    public void onChange(DocumentChangeEvent event) {
+        switch (event.getType()) {
+            case ELEMENT_CHANGED -> invalidate(event.getElement());
+            case ELEMENTS_REMOVED -> {
+                for (DocumentElement element : event.getElements()) {
+                    invalidate(element);
+                }
+            }
+            default -> {
+                // New elements have nothing cached yet; the title is not an element
+            }
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized int getSize() {
+        return fragments.size();
+    }
+
+    public synchronized long getCharacterCount() {
+        return characters;
+    }
+
+    private void remove(Key key) {
+        Fragment fragment = fragments.remove(key);
+        if (fragment != null) {
+            characters -= fragment.text.length();
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Key, Fragment>> it = fragments.entrySet().iterator();
+        while (characters > maxCharacters && it.hasNext()) {
+            characters -= it.next().getValue().text.length();
+            it.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Element identity plus format.
+     */
+    private static final class Key {
+        private final DocumentElement element;
+        private final Class<?> format;
+
+        Key(DocumentElement element, Class<?> format) {
+            this.element = element;
+            this.format = format;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return element == other.element && format == other.format;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(element) * 31 + format.hashCode();
+        }
+    }
+
+    private static final class Fragment {
+        private final long version;
+        private final String text;
+
+        Fragment(long version, String text) {
+            this.version = version;
+            this.text = text;
+        }
+    }
+}
@@ -1,63 +1,72 @@
 package com.documenteditor.visitor;
 
 import com.documenteditor.model.*;
+import com.documenteditor.text.Escaper;
+import java.io.Writer;
 
 /**
  * VISITOR PATTERN: Concrete Visitor
  * Exports document to HTML format.
+ * Supports parallel traversal and streaming to a Writer.
  */
-public class HTMLExportVisitor implements Visitor {
-    private StringBuilder html;
+public class HTMLExportVisitor extends TextExportVisitor {
     
     public HTMLExportVisitor() {
-        this.html = new StringBuilder();
+        super();
+    }
+    
+    /**
+     * Create a visitor that streams HTML to the given writer.
+     * @param out The destination for the HTML
+     */
+    public HTMLExportVisitor(Writer out) {
+        super(out);
+    }
+    
+    @Override
+    protected HTMLExportVisitor newInstance() {
+        return new HTMLExportVisitor();
     }
     
     @Override
-    public void visitDocument(Document document) {
-        html.setLength(0); // Reset
-        html.append("<!DOCTYPE html>\n");
-        html.append("<html>\n<head>\n");
-        html.append("<title>").append(escapeHtml(document.getTitle())).append("</title>\n");
-        html.append("</head>\n<body>\n");
-        
-        for (DocumentElement element : document.getChildren()) {
-            element.accept(this);
-        }
-        
-        html.append("</body>\n</html>");
+    protected void appendHeader(DocumentView document) {
+        buffer.append("<!DOCTYPE html>\n");
+        buffer.append("<html>\n<head>\n");
+        buffer.append("<title>");
+        Escaper.HTML.escape(document.getTitle(), buffer).append("</title>\n");
+        headEnd();
+        buffer.append("</head>\n<body>\n");
+    }
+    
+    @Override
+    protected void appendFooter() {
+        buffer.append("</body>\n</html>");
     }
     
     @Override
     public void visitParagraph(Paragraph paragraph) {
-        html.append("<p>").append(escapeHtml(paragraph.getText())).append("</p>\n");
+        buffer.append("<p>");
+        Escaper.HTML.escape(paragraph.getContent(), buffer).append("</p>\n");
     }
     
     @Override
     public void visitHeadline(Headline headline) {
         int level = headline.getLevel();
-        html.append("<h").append(level).append(">");
-        html.append(escapeHtml(headline.getText()));
-        html.append("</h").append(level).append(">\n");
+        buffer.append("<h").append(level).append(">");
+        Escaper.HTML.escape(headline.getContent(), buffer).append("</h").append(level).append(">\n");
     }
     
     @Override
     public void visitImage(Image image) {
-        html.append("<img src=\"").append(escapeHtml(image.getFilename())).append("\" ");
-        html.append("width=\"").append(image.getWidth()).append("\" ");
-        html.append("height=\"").append(image.getHeight()).append("\" ");
-        html.append("alt=\"").append(escapeHtml(image.getFilename())).append("\" />\n");
+        buffer.append("<img src=\"");
+        Escaper.ATTRIBUTE.escape(image.getFilename(), buffer).append("\" ");
+        buffer.append("width=\"").append(image.getWidth()).append("\" ");
+        buffer.append("height=\"").append(image.getHeight()).append("\" ");
+        buffer.append("alt=\"");
+        Escaper.ATTRIBUTE.escape(image.getFilename(), buffer).append("\" />\n");
     }
     
     public String getHTML() {
-        return html.toString();
-    }
-    
-    private String escapeHtml(String text) {
-        return text.replace("&", "&amp;")
-                   .replace("<", "&lt;")
-                   .replace(">", "&gt;")
-                   .replace("\"", "&quot;")
-                   .replace("'", "&#39;");
+        return getBufferedOutput();
     }
 }
@@ -0,0 +1,82 @@
+package com.documenteditor.visitor;
+
+import com.documenteditor.adapter.JSONWriter;
+import com.documenteditor.model.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * VISITOR PATTERN: Concrete Visitor
+ * Serializes a document as JSON straight to a Writer, without building the
+ * {@code toSerializable()} map tree. Fields are written in a fixed order
+ * (type first) with the same names the map tree uses, so the output reads
+ * back through the same loader and is stable between saves.
+ * Write failures surface as {@link UncheckedIOException}.
+ */
+public class JSONSerializationVisitor implements Visitor {
+    private final JSONWriter json;
+
+    /**
+     * @param out The destination; it is flushed, not closed
+     */
+    public JSONSerializationVisitor(Writer out) {
+        this.json = new JSONWriter(out);
+    }
+
+    @Override
+    public void visitDocument(DocumentView document) {
+        try {
+            json.beginObject()
+                .name("type").value("Document")
+                .name("title").value(document.getTitle())
+                .name("elements").beginArray();
+            for (DocumentElement element : document.getElements()) {
+                element.accept(this);
+            }
+            json.endArray().endObject();
+            json.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void visitParagraph(Paragraph paragraph) {
+        try {
+            json.beginObject()
+                .name("type").value("Paragraph")
+                .name("text").value(paragraph.getContent())
+                .endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void visitHeadline(Headline headline) {
+        try {
+            json.beginObject()
+                .name("type").value("Headline")
+                .name("text").value(headline.getContent())
+                .name("level").value(headline.getLevel())
+                .endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void visitImage(Image image) {
+        try {
+            json.beginObject()
+                .name("type").value("Image")
+                .name("filename").value(image.getFilename())
+                .name("width").value(image.getWidth())
+                .name("height").value(image.getHeight())
+                .endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.documenteditor.visitor;
+
+import com.documenteditor.model.*;
+import com.documenteditor.text.Escaper;
+import java.io.Writer;
+
+/**
+ * VISITOR PATTERN: Concrete Visitor
+ * Exports document to Markdown format.
+ * Supports parallel traversal and streaming to a Writer.
+ */
+public class MarkdownExportVisitor extends TextExportVisitor {
+
+    public MarkdownExportVisitor() {
+        super();
+    }
+
+    /**
+     * Create a visitor that streams Markdown to the given writer.
+     * @param out The destination for the Markdown
+     */
+    public MarkdownExportVisitor(Writer out) {
+        super(out);
+    }
+
+    @Override
+    protected MarkdownExportVisitor newInstance() {
+        return new MarkdownExportVisitor();
+    }
+
+    @Override
+    protected void appendHeader(DocumentView document) {
+        buffer.append("# ");
+        Escaper.MARKDOWN.escape(document.getTitle(), buffer).append("\n\n");
+    }
+
+    @Override
+    public void visitParagraph(Paragraph paragraph) {
+        Escaper.MARKDOWN.escape(paragraph.getContent(), buffer).append("\n\n");
+    }
+
+    @Override
+    public void visitHeadline(Headline headline) {
+        buffer.append("#".repeat(headline.getLevel() + 1)).append(" ");
+        Escaper.MARKDOWN.escape(headline.getContent(), buffer).append("\n\n");
+    }
+
+    @Override
+    public void visitImage(Image image) {
+        buffer.append("![");
+        Escaper.MARKDOWN.escape(image.getFilename(), buffer).append("](");
+        Escaper.URL.escape(image.getFilename(), buffer).append(")\n\n");
+    }
+
+    public String getMarkdown() {
+        return getBufferedOutput();
+    }
+}
@@ -0,0 +1,181 @@
+package com.documenteditor.visitor;
+
+import com.documenteditor.model.*;
+import com.documenteditor.pdf.PdfContent;
+import com.documenteditor.pdf.PdfWriter;
+import com.documenteditor.pdf.StandardFont;
+import com.documenteditor.text.LineBreaker;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * VISITOR PATTERN: Concrete Visitor
+ * Exports a document as a real (binary) PDF, streamed page by page.
+ * Text is broken into lines by a {@link LineBreaker} (optimal fit) with
+ * the Helvetica font metrics, reusing cached breaks for unchanged
+ * paragraphs. Images are drawn as outlined placeholders sized from their
+ * pixel dimensions.
+ * Only the page being laid out is held in memory; each finished page is
+ * compressed and written out immediately.
+ * Write failures surface as {@link UncheckedIOException}.
+ */
+public class PDFStreamVisitor implements Visitor {
+    // US Letter, one inch margins
+    private static final int PAGE_WIDTH = 612;
+    private static final int PAGE_HEIGHT = 792;
+    private static final float MARGIN = 72;
+    private static final float TEXT_WIDTH = PAGE_WIDTH - 2 * MARGIN;
+
+    private static final float TITLE_SIZE = 20;
+    private static final float BODY_SIZE = 11;
+    private static final float CAPTION_SIZE = 9;
+    private static final float LINE_SPACING = 1.3f;
+    /** Pixels to points, assuming 96 dpi images. */
+    private static final float POINTS_PER_PIXEL = 0.75f;
+
+    private final OutputStream out;
+    private final PdfContent page;
+    private final LineBreaker regularBreaker;
+    private final LineBreaker boldBreaker;
+    private final StringBuilder line;
+    private PdfWriter pdf;
+    private float y;
+
+    /**
+     * @param out The stream to write the PDF to; it is flushed, not closed
+     */
+    public PDFStreamVisitor(OutputStream out) {
+        this.out = out;
+        this.page = new PdfContent();
+        this.regularBreaker = new LineBreaker(StandardFont.HELVETICA, LineBreaker.Mode.OPTIMAL, true);
+        this.boldBreaker = new LineBreaker(StandardFont.HELVETICA_BOLD, LineBreaker.Mode.OPTIMAL, true);
+        this.line = new StringBuilder();
+    }
+
+    @Override
+    public void visitDocument(DocumentView document) {
+        try {
+            pdf = new PdfWriter(out);
+            newPage();
+
+            layout(document.getTitle(), StandardFont.HELVETICA_BOLD, TITLE_SIZE);
+            y -= BODY_SIZE;
+            page.strokeGray(0.5f).line(MARGIN, y, PAGE_WIDTH - MARGIN, y);
+            y -= BODY_SIZE;
+
+            for (DocumentElement element : document.getElements()) {
+                element.accept(this);
+            }
+
+            finishPage();
+            pdf.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (pdf != null) {
+                // Frees the compressor if the export failed part way; a no-op after finish()
+                pdf.discard();
+            }
+        }
+    }
+
+    @Override
+    public void visitParagraph(Paragraph paragraph) {
+        layout(paragraph.getContent(), StandardFont.HELVETICA, BODY_SIZE);
+        y -= BODY_SIZE * 0.6f;
+    }
+
+    @Override
+    public void visitHeadline(Headline headline) {
+        float size = switch (headline.getLevel()) {
+            case 1 -> 18;
+            case 2 -> 15;
+            case 3 -> 13;
+            default -> 12;
+        };
+        y -= size * 0.6f;
+        // Keep a headline together with at least one line of the text after it
+        ensureSpace(size * LINE_SPACING + BODY_SIZE * LINE_SPACING);
+        layout(headline.getContent(), StandardFont.HELVETICA_BOLD, size);
+        y -= size * 0.3f;
+    }
+
+    @Override
+    public void visitImage(Image image) {
+        float width = Math.max(1, image.getWidth()) * POINTS_PER_PIXEL;
+        float height = Math.max(1, image.getHeight()) * POINTS_PER_PIXEL;
+        float captionHeight = CAPTION_SIZE * LINE_SPACING * 2;
+        float maxHeight = PAGE_HEIGHT - 2 * MARGIN - captionHeight;
+        float scale = Math.min(1, Math.min(TEXT_WIDTH / width, maxHeight / height));
+        width *= scale;
+        height *= scale;
+
+        ensureSpace(height + captionHeight);
+        float x = MARGIN + (TEXT_WIDTH - width) / 2;
+        y -= height;
+        page.strokeGray(0.5f)
+            .rectangle(x, y, width, height)
+            .line(x, y, x + width, y + height)
+            .line(x, y + height, x + width, y);
+        y -= CAPTION_SIZE * 0.5f;
+        layout("[Image: " + image.getFilename() + " (" + image.getWidth() + "x" + image.getHeight() + ")]",
+                StandardFont.HELVETICA, CAPTION_SIZE);
+        y -= BODY_SIZE * 0.6f;
+    }
+
+    // Layout
+
+    /**
+     * Break text into lines with the font's metrics and draw them.
+     */
+    private void layout(CharSequence text, StandardFont font, float size) {
+        LineBreaker breaker = font == StandardFont.HELVETICA_BOLD ? boldBreaker : regularBreaker;
+        LineBreaker.Layout layout = breaker.layout(text, (int) (TEXT_WIDTH * 1000 / size));
+        for (int i = 0; i < layout.lineCount(); i++) {
+            line.setLength(0);
+            breaker.appendLine(layout, i, line);
+            emitLine(font, size);
+        }
+    }
+
+    private void emitLine(StandardFont font, float size) {
+        float leading = size * LINE_SPACING;
+        ensureSpace(leading);
+        y -= leading;
+        page.text(font, size, MARGIN, y + (leading - size), line);
+    }
+
+    // Pagination
+
+    private void ensureSpace(float height) {
+        if (y - height < MARGIN && y < PAGE_HEIGHT - MARGIN) {
+            finishPage();
+            newPage();
+        }
+    }
+
+    private void newPage() {
+        page.reset();
+        y = PAGE_HEIGHT - MARGIN;
+    }
+
+    private void finishPage() {
+        String number = "Page " + (pdf.getPageCount() + 1);
+        float width = StandardFont.HELVETICA.stringWidth(number, CAPTION_SIZE);
+        page.text(StandardFont.HELVETICA, CAPTION_SIZE, (PAGE_WIDTH - width) / 2, MARGIN / 2, number);
+        try {
+            pdf.addPage(page, PAGE_WIDTH, PAGE_HEIGHT);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Get the number of pages written so far.
+     * @return The page count
+     */
+    public int getPageCount() {
+        return pdf == null ? 0 : pdf.getPageCount();
+    }
+}
@@ -0,0 +1,104 @@
+package com.documenteditor.visitor;
+
+import com.documenteditor.model.Document;
+import com.documenteditor.model.DocumentElement;
+import com.documenteditor.model.DocumentView;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Streams a {@link TextExportVisitor} export with the elements rendered in
+ * parallel. The element list is cut into fixed-size chunks that are
+ * rendered concurrently by forked visitors; the calling thread writes the
+ * chunks out in document order as they complete.
+ * At most {@code maxInFlight} chunks are rendering or waiting to be written
+ * at any time, and their buffers are reused, so memory stays bounded no
+ * matter how large the document is.
+ */
+public class ParallelExport {
+    private static final int DEFAULT_CHUNK_SIZE = 256;
+    private static final int MAX_POOLED_CAPACITY = 1 << 20;
+
+    private final Executor executor;
+    private final int chunkSize;
+    private final int maxInFlight;
+
+    public ParallelExport() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE, 2 * ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * @param executor The executor that renders the chunks
+     * @param chunkSize The number of top-level elements per chunk
+     * @param maxInFlight The maximum number of chunks held in memory at once
+     */
+    public ParallelExport(Executor executor, int chunkSize, int maxInFlight) {
+        this.executor = executor;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    /**
+     * Export the document through the given visitor.
+     * The output is identical to {@code document.accept(visitor)}.
+     * Live documents are exported from an O(1) snapshot, which must be taken
+     * on the thread that edits them; from other threads, pass a snapshot.
+     * @param document The document or snapshot to export
+     * @param visitor The visitor that writes the output
+     */
+    public void export(DocumentView document, TextExportVisitor visitor) {
+        DocumentView view = document instanceof Document ? ((Document) document).snapshot() : document;
+        List<DocumentElement> elements = view.getElements();
+        int size = elements.size();
+        if (size <= chunkSize) {
+            view.accept(visitor);
+            return;
+        }
+
+        // Forked visitors double as the buffer pool: one per chunk in flight
+        ArrayDeque<TextExportVisitor> pool = new ArrayDeque<>(maxInFlight);
+        ArrayDeque<CompletableFuture<TextExportVisitor>> inFlight = new ArrayDeque<>(maxInFlight);
+
+        visitor.begin(view);
+        int next = 0;
+        try {
+            while (next < size || !inFlight.isEmpty()) {
+                while (next < size && inFlight.size() < maxInFlight) {
+                    TextExportVisitor local = pool.isEmpty() ? visitor.fork() : pool.pop();
+                    List<DocumentElement> chunk = elements.subList(next, Math.min(next + chunkSize, size));
+                    inFlight.add(CompletableFuture.supplyAsync(() -> render(local, chunk), executor));
+                    next += chunk.size();
+                }
+                TextExportVisitor done = inFlight.remove().join();
+                visitor.emit(done.buffer);
+                recycle(done);
+                pool.push(done);
+            }
+        } catch (CompletionException e) {
+            // Let the remaining chunks finish in the background; none of them are written
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        visitor.end();
+    }
+
+    private static TextExportVisitor render(TextExportVisitor local, List<DocumentElement> chunk) {
+        for (DocumentElement element : chunk) {
+            local.visitElement(element);
+        }
+        return local;
+    }
+
+    private static void recycle(TextExportVisitor local) {
+        local.buffer.setLength(0);
+        if (local.buffer.capacity() > MAX_POOLED_CAPACITY) {
+            local.buffer.trimToSize();
+        }
+    }
+}
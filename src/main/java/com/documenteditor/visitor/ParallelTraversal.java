@@ -0,0 +1,91 @@
+package com.documenteditor.visitor;
+
+import com.documenteditor.model.Document;
+import com.documenteditor.model.DocumentElement;
+import com.documenteditor.model.DocumentView;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs a {@link ParallelVisitor} over a document on a fork/join pool.
+ * The element list is split into ranges, each range is visited by a forked
+ * visitor, and the partial results are combined in document order.
+ * Live documents are traversed through an O(1) snapshot, so editing may
+ * continue while the traversal runs.
+ */
+public class ParallelTraversal {
+    private static final int MIN_RANGE = 1024;
+    private static final int RANGES_PER_THREAD = 8;
+
+    private final ForkJoinPool pool;
+    private final int minRange;
+
+    public ParallelTraversal() {
+        this(ForkJoinPool.commonPool(), MIN_RANGE);
+    }
+
+    public ParallelTraversal(ForkJoinPool pool, int minRange) {
+        this.pool = pool;
+        this.minRange = Math.max(1, minRange);
+    }
+
+    /**
+     * Traverse the document in parallel and complete the given visitor.
+     * Small documents are visited on the calling thread. A live document is
+     * snapshotted first, which is only safe on the thread that edits it;
+     * from any other thread, pass a snapshot taken on the editing thread.
+     * @param document The document or snapshot to traverse
+     * @param visitor The visitor that receives the combined result
+     */
+    public <R> void traverse(DocumentView document, ParallelVisitor<R> visitor) {
+        DocumentView view = document instanceof Document ? ((Document) document).snapshot() : document;
+        List<DocumentElement> elements = view.getElements();
+        int size = elements.size();
+        int rangeSize = Math.max(minRange, size / (pool.getParallelism() * RANGES_PER_THREAD));
+
+        R result;
+        if (size <= rangeSize) {
+            result = visitRange(visitor, elements);
+        } else {
+            result = pool.invoke(new RangeTask<>(visitor, elements, rangeSize));
+        }
+        visitor.complete(view, result);
+    }
+
+    private static <R> R visitRange(ParallelVisitor<R> prototype, List<DocumentElement> range) {
+        ParallelVisitor<R> local = prototype.fork();
+        for (DocumentElement element : range) {
+            local.visitElement(element);
+        }
+        return local.getPartialResult();
+    }
+
+    private static final class RangeTask<R> extends RecursiveTask<R> {
+        private static final long serialVersionUID = 1L;
+
+        private final ParallelVisitor<R> prototype;
+        private final List<DocumentElement> range;
+        private final int rangeSize;
+
+        RangeTask(ParallelVisitor<R> prototype, List<DocumentElement> range, int rangeSize) {
+            this.prototype = prototype;
+            this.range = range;
+            this.rangeSize = rangeSize;
+        }
+
+        @Override
+        protected R compute() {
+            int size = range.size();
+            if (size <= rangeSize) {
+                return visitRange(prototype, range);
+            }
+            int middle = size / 2;
+            RangeTask<R> left = new RangeTask<>(prototype, range.subList(0, middle), rangeSize);
+            RangeTask<R> right = new RangeTask<>(prototype, range.subList(middle, size), rangeSize);
+            left.fork();
+            R rightResult = right.compute();
+            return prototype.combine(left.join(), rightResult);
+        }
+    }
+}
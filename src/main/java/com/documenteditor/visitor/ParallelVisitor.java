@@ -0,0 +1,51 @@
+package com.documenteditor.visitor;
+
+import com.documenteditor.model.DocumentElement;
+import com.documenteditor.model.DocumentView;
+
+/**
+ * VISITOR PATTERN: Visitor that can be split across threads.
+ * {@link ParallelTraversal} gives each range of elements its own forked
+ * instance with local state, then merges the partial results in document
+ * order with {@link #combine} and hands the total back to the original
+ * visitor through {@link #complete}.
+ *
+ * @param <R> The type of the partial result produced for a range of elements
+ */
+public interface ParallelVisitor<R> extends Visitor {
+    /**
+     * Create a fresh visitor with the same configuration and empty state.
+     * @return A new visitor for one range of elements
+     */
+    ParallelVisitor<R> fork();
+
+    /**
+     * Visit one top-level element of a range.
+     * @param element The element to visit
+     */
+    default void visitElement(DocumentElement element) {
+        element.accept(this);
+    }
+
+    /**
+     * Get the result for the elements this instance has visited.
+     * @return The partial result
+     */
+    R getPartialResult();
+
+    /**
+     * Merge the results of two adjacent ranges.
+     * @param left The result of the earlier range
+     * @param right The result of the later range
+     * @return The merged result
+     */
+    R combine(R left, R right);
+
+    /**
+     * Finish the document on this visitor, as visitDocument would have,
+     * using the merged result of all elements.
+     * @param document The document that was traversed
+     * @param elements The combined result of every element, in order
+     */
+    void complete(DocumentView document, R elements);
+}
@@ -0,0 +1,57 @@
+package com.documenteditor.visitor;
+
+import com.documenteditor.model.*;
+import java.io.Writer;
+
+/**
+ * VISITOR PATTERN: Concrete Visitor
+ * Exports document to plain text format.
+ * Supports parallel traversal and streaming to a Writer.
+ */
+public class PlainTextExportVisitor extends TextExportVisitor {
+
+    public PlainTextExportVisitor() {
+        super();
+    }
+
+    /**
+     * Create a visitor that streams plain text to the given writer.
+     * @param out The destination for the text
+     */
+    public PlainTextExportVisitor(Writer out) {
+        super(out);
+    }
+
+    @Override
+    protected PlainTextExportVisitor newInstance() {
+        return new PlainTextExportVisitor();
+    }
+
+    @Override
+    protected void appendHeader(DocumentView document) {
+        buffer.append(document.getTitle().toUpperCase()).append("\n");
+        buffer.append("=".repeat(document.getTitle().length())).append("\n\n");
+    }
+
+    @Override
+    public void visitParagraph(Paragraph paragraph) {
+        paragraph.getContent().appendTo(buffer).append("\n\n");
+    }
+
+    @Override
+    public void visitHeadline(Headline headline) {
+        buffer.append("\n").append(headline.getText().toUpperCase()).append("\n");
+        buffer.append("-".repeat(headline.getContent().length())).append("\n\n");
+    }
+
+    @Override
+    public void visitImage(Image image) {
+        buffer.append("[IMAGE: ").append(image.getFilename());
+        buffer.append(" (").append(image.getWidth()).append("x");
+        buffer.append(image.getHeight()).append(")]\n\n");
+    }
+
+    public String getText() {
+        return getBufferedOutput();
+    }
+}
@@ -5,41 +5,47 @@ import com.documenteditor.model.*;
 /**
  * VISITOR PATTERN: Concrete Visitor
  * Renders document to console-friendly format.
+ * Supports parallel traversal; element output is merged as ropes.
  */
-public class RenderVisitor implements Visitor {
-    private StringBuilder output;
+public class RenderVisitor extends TextExportVisitor {
     
     public RenderVisitor() {
-        this.output = new StringBuilder();
+        super();
     }
     
     @Override
-    public void visitDocument(Document document) {
-        output.setLength(0); // Reset
-        output.append("=".repeat(60)).append("\n");
-        output.append("Document: ").append(document.getTitle()).append("\n");
-        output.append("=".repeat(60)).append("\n\n");
-        
-        for (DocumentElement element : document.getChildren()) {
-            element.accept(this);
-            output.append("\n");
-        }
+    protected RenderVisitor newInstance() {
+        return new RenderVisitor();
+    }
+    
+    @Override
+    protected void renderElement(DocumentElement element) {
+        element.accept(this);
+        buffer.append("\n");
+    }
+    
+    @Override
+    protected void appendHeader(DocumentView document) {
+        buffer.append("=".repeat(60)).append("\n");
+        buffer.append("Document: ").append(document.getTitle()).append("\n");
+        buffer.append("=".repeat(60)).append("\n\n");
     }
     
     @Override
     public void visitParagraph(Paragraph paragraph) {
-        output.append(paragraph.getText()).append("\n");
+        paragraph.getContent().appendTo(buffer).append("\n");
     }
     
     @Override
     public void visitHeadline(Headline headline) {
         String prefix = "#".repeat(headline.getLevel());
-        output.append(prefix).append(" ").append(headline.getText()).append("\n");
+        buffer.append(prefix).append(" ");
+        headline.getContent().appendTo(buffer).append("\n");
     }
     
     @Override
     public void visitImage(Image image) {
-        output.append("[Image: ")
+        buffer.append("[Image: ")
               .append(image.getFilename())
               .append(" (")
               .append(image.getWidth())
@@ -49,6 +55,6 @@ public class RenderVisitor implements Visitor {
     }
     
     public String getOutput() {
-        return output.toString();
+        return getBufferedOutput();
     }
 }
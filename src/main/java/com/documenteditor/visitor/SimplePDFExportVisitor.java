@@ -1,69 +1,73 @@
 package com.documenteditor.visitor;
 
+import com.documenteditor.io.ChannelWriter;
 import com.documenteditor.model.*;
+import com.documenteditor.text.LineBreaker;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.Writer;
 
 /**
  * Simple PDF-like export using plain text format.
  * This is a lightweight alternative that doesn't require external libraries.
  * For production use, this would be replaced with iText-based PDFExportVisitor.
+ * Supports parallel traversal and streaming to a Writer.
  */
-public class SimplePDFExportVisitor implements Visitor {
-    private StringBuilder content;
+public class SimplePDFExportVisitor extends TextExportVisitor {
+    private static final int LINE_WIDTH = 64;
+    
+    private final LineBreaker lineBreaker = new LineBreaker(LineBreaker.MONOSPACE, LineBreaker.Mode.FIXED_WIDTH, false);
     private String outputPath;
     
     public SimplePDFExportVisitor(String outputPath) {
+        super();
         this.outputPath = outputPath;
-        this.content = new StringBuilder();
+    }
+    
+    /**
+     * Create a visitor that streams the formatted text to the given writer.
+     * @param out The destination for the output
+     */
+    public SimplePDFExportVisitor(Writer out) {
+        super(out);
     }
     
     @Override
-    public void visitDocument(Document document) {
+    protected SimplePDFExportVisitor newInstance() {
+        return new SimplePDFExportVisitor(outputPath);
+    }
+    
+    @Override
+    protected void appendHeader(DocumentView document) {
         // PDF-style header
-        content.append("╔══════════════════════════════════════════════════════════════╗\n");
-        content.append("║                    PDF DOCUMENT EXPORT                        ║\n");
-        content.append("╚══════════════════════════════════════════════════════════════╝\n\n");
+        buffer.append("╔══════════════════════════════════════════════════════════════╗\n");
+        buffer.append("║                    PDF DOCUMENT EXPORT                        ║\n");
+        buffer.append("╚══════════════════════════════════════════════════════════════╝\n\n");
         
         // Document title (centered and bold)
         String title = document.getTitle();
         int padding = (60 - title.length()) / 2;
-        content.append(" ".repeat(Math.max(0, padding)));
-        content.append("【 ").append(title.toUpperCase()).append(" 】\n\n");
-        content.append("─".repeat(64)).append("\n\n");
-        
-        // Visit all child elements
-        for (DocumentElement element : document.getChildren()) {
-            element.accept(this);
-        }
-        
+        buffer.append(" ".repeat(Math.max(0, padding)));
+        buffer.append("【 ").append(title.toUpperCase()).append(" 】\n\n");
+        buffer.append("─".repeat(64)).append("\n\n");
+    }
+    
+    @Override
+    protected void appendFooter() {
         // PDF-style footer
-        content.append("\n").append("─".repeat(64)).append("\n");
-        content.append("Generated by Document Editor - PDF Export\n");
-        content.append("═".repeat(64)).append("\n");
+        buffer.append("\n").append("─".repeat(64)).append("\n");
+        buffer.append("Generated by Document Editor - PDF Export\n");
+        buffer.append("═".repeat(64)).append("\n");
     }
     
     @Override
     public void visitParagraph(Paragraph paragraph) {
-        // Justify text for PDF-like appearance
-        String text = paragraph.getText();
-        String[] words = text.split("\\s+");
-        StringBuilder line = new StringBuilder();
-        int lineWidth = 64;
-        
-        for (String word : words) {
-            if (line.length() + word.length() + 1 > lineWidth) {
-                content.append(line.toString().trim()).append("\n");
-                line = new StringBuilder();
-            }
-            line.append(word).append(" ");
+        // Justify text for PDF-like appearance, writing each line straight from the text
+        LineBreaker.Layout layout = lineBreaker.layout(paragraph.getContent(), LINE_WIDTH);
+        for (int i = 0; i < layout.lineCount(); i++) {
+            lineBreaker.appendLine(layout, i, buffer).append("\n");
         }
-        if (line.length() > 0) {
-            content.append(line.toString().trim()).append("\n");
-        }
-        content.append("\n");
+        buffer.append("\n");
     }
     
     @Override
@@ -76,27 +80,31 @@ public class SimplePDFExportVisitor implements Visitor {
             default -> "   ";
         };
         
-        content.append("\n").append(marker).append(" ");
-        content.append(headline.getText().toUpperCase());
-        content.append(" ").append(marker).append("\n\n");
+        buffer.append("\n").append(marker).append(" ");
+        buffer.append(headline.getText().toUpperCase());
+        buffer.append(" ").append(marker).append("\n\n");
     }
     
     @Override
     public void visitImage(Image image) {
-        content.append("┌").append("─".repeat(62)).append("┐\n");
-        content.append("│ [IMAGE]                                                        │\n");
-        content.append("│ File: ").append(String.format("%-54s", image.getFilename())).append(" │\n");
-        content.append("│ Dimensions: ").append(String.format("%-48s", 
+        buffer.append("┌").append("─".repeat(62)).append("┐\n");
+        buffer.append("│ [IMAGE]                                                        │\n");
+        buffer.append("│ File: ").append(String.format("%-54s", image.getFilename())).append(" │\n");
+        buffer.append("│ Dimensions: ").append(String.format("%-48s", 
             image.getWidth() + "x" + image.getHeight() + " pixels")).append(" │\n");
-        content.append("└").append("─".repeat(62)).append("┘\n\n");
+        buffer.append("└").append("─".repeat(62)).append("┘\n\n");
     }
     
     /**
      * Write the PDF content to file and close.
+     * Does nothing when streaming to a Writer.
      */
     public void close() throws IOException {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(outputPath))) {
-            writer.write(content.toString());
+        if (outputPath == null) {
+            return;
+        }
+        try (Writer writer = new ChannelWriter(outputPath)) {
+            writer.write(getBufferedOutput());
         }
     }
     
@@ -105,6 +113,6 @@ public class SimplePDFExportVisitor implements Visitor {
     }
     
     public String getContent() {
-        return content.toString();
+        return getBufferedOutput();
     }
 }
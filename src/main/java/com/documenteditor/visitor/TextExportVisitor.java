@@ -0,0 +1,258 @@
+package com.documenteditor.visitor;
+
+import com.documenteditor.model.DocumentElement;
+import com.documenteditor.model.DocumentView;
+import com.documenteditor.text.Rope;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * VISITOR PATTERN: Abstract Visitor for text output formats
+ * TEMPLATE METHOD PATTERN: header, elements and footer are supplied by subclasses
+ * Renders into a buffer. When constructed with a Writer the buffer is
+ * drained after the header, after every top-level element and after the
+ * footer, so memory stays bounded by the largest element rather than the
+ * whole document. Write failures surface as {@link UncheckedIOException}.
+ * {@link ExportStage}s hook into the same points to decorate the output
+ * as it streams. With a {@link FragmentCache}, elements that have not
+ * changed since the last export are copied from the cache instead of being
+ * rendered again; stages still run on every element.
+ */
+public abstract class TextExportVisitor implements ParallelVisitor<Rope> {
+    private static final ExportStage[] NO_STAGES = new ExportStage[0];
+
+    protected final StringBuilder buffer;
+    private final Writer out;
+    private ExportStage[] stages;
+    private FragmentCache cache;
+    private char[] scratch;
+
+    protected TextExportVisitor() {
+        this(null);
+    }
+
+    protected TextExportVisitor(Writer out) {
+        this.buffer = new StringBuilder();
+        this.out = out;
+        this.stages = NO_STAGES;
+    }
+
+    /**
+     * Set the stages that decorate the output, applied in list order.
+     * @param stages The pipeline stages
+     */
+    public void setStages(List<? extends ExportStage> stages) {
+        this.stages = stages.toArray(NO_STAGES);
+    }
+
+    @Override
+    public void visitDocument(DocumentView document) {
+        begin(document);
+
+        for (DocumentElement element : document.getElements()) {
+            exportElement(element);
+        }
+
+        end();
+    }
+
+    /**
+     * Start an export driven from outside, e.g. by a traversal that feeds
+     * several visitors at once: writes the header.
+     * @param document The document being exported
+     */
+    public void begin(DocumentView document) {
+        buffer.setLength(0); // Reset
+        writeHeader(document);
+    }
+
+    /**
+     * Export the next top-level element of an export started with {@link #begin}.
+     * @param element The element to export
+     */
+    public void exportElement(DocumentElement element) {
+        visitElement(element);
+        flush();
+    }
+
+    /**
+     * Finish an export started with {@link #begin}: writes the footer.
+     */
+    public void end() {
+        writeFooter();
+    }
+
+    /**
+     * Reuse rendered elements from a cache shared between exports.
+     * @param cache The cache to read and fill, or null to render everything
+     */
+    public void setCache(FragmentCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Render one top-level element and pass it through the stages.
+     * Subclasses customise {@link #renderElement} instead.
+     */
+    @Override
+    public final void visitElement(DocumentElement element) {
+        int start = buffer.length();
+        String cached = cache == null ? null : cache.get(element, getClass());
+        if (cached != null) {
+            buffer.append(cached);
+        } else if (cache != null) {
+            long version = element.getVersion();
+            renderElement(element);
+            cache.put(element, getClass(), version, buffer.substring(start));
+        } else {
+            renderElement(element);
+        }
+        for (ExportStage stage : stages) {
+            stage.onElement(element, buffer, start);
+        }
+        process(start);
+    }
+
+    /**
+     * Render one top-level element into the buffer.
+     * @param element The element to render
+     */
+    protected void renderElement(DocumentElement element) {
+        element.accept(this);
+    }
+
+    /**
+     * Write everything before the first element.
+     * @param document The document being exported
+     */
+    protected abstract void appendHeader(DocumentView document);
+
+    /**
+     * Write everything after the last element.
+     */
+    protected void appendFooter() {
+    }
+
+    /**
+     * Let the stages add to the head; formats with a head call this just
+     * before closing it.
+     */
+    protected void headEnd() {
+        for (ExportStage stage : stages) {
+            stage.onHeadEnd(buffer);
+        }
+    }
+
+    /**
+     * Create an in-memory visitor of the same format for one parallel range.
+     * @return A fresh visitor with no Writer attached
+     */
+    protected abstract TextExportVisitor newInstance();
+
+    @Override
+    public TextExportVisitor fork() {
+        TextExportVisitor forked = newInstance();
+        forked.stages = stages;
+        forked.cache = cache;
+        return forked;
+    }
+
+    @Override
+    public Rope getPartialResult() {
+        return Rope.of(buffer);
+    }
+
+    @Override
+    public Rope combine(Rope left, Rope right) {
+        return left.append(right);
+    }
+
+    @Override
+    public void complete(DocumentView document, Rope elements) {
+        buffer.setLength(0);
+        writeHeader(document);
+        if (out != null) {
+            try {
+                elements.appendTo(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            elements.appendTo(buffer);
+        }
+        writeFooter();
+    }
+
+    private void writeHeader(DocumentView document) {
+        int start = buffer.length();
+        appendHeader(document);
+        for (ExportStage stage : stages) {
+            stage.onBodyStart(buffer);
+        }
+        process(start);
+        flush();
+    }
+
+    private void writeFooter() {
+        int start = buffer.length();
+        for (ExportStage stage : stages) {
+            stage.onBodyEnd(buffer);
+        }
+        appendFooter();
+        process(start);
+        flush();
+    }
+
+    private void process(int start) {
+        for (ExportStage stage : stages) {
+            stage.process(buffer, start);
+        }
+    }
+
+    /**
+     * Get the output rendered so far (empty when streaming to a Writer).
+     * @return The buffered output
+     */
+    protected String getBufferedOutput() {
+        return buffer.toString();
+    }
+
+    /**
+     * Drain the buffer to the Writer, if one is attached.
+     */
+    protected void flush() {
+        if (out == null || buffer.length() == 0) {
+            return;
+        }
+        write(buffer);
+        buffer.setLength(0);
+    }
+
+    /**
+     * Output text rendered elsewhere (by a forked visitor) as the next part
+     * of this visitor's output, between {@link #begin} and {@link #end}.
+     * @param rendered The rendered elements
+     */
+    void emit(StringBuilder rendered) {
+        if (out == null) {
+            buffer.append(rendered);
+        } else {
+            write(rendered);
+        }
+    }
+
+    private void write(StringBuilder text) {
+        int length = text.length();
+        if (scratch == null || scratch.length < length) {
+            scratch = new char[Math.max(length, 8192)];
+        }
+        text.getChars(0, length, scratch, 0);
+        try {
+            out.write(scratch, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
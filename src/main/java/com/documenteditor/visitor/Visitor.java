@@ -7,7 +7,7 @@ import com.documenteditor.model.*;
  * Defines visit methods for each element type in the document structure.
  */
 public interface Visitor {
-    void visitDocument(Document document);
+    void visitDocument(DocumentView document);
     void visitParagraph(Paragraph paragraph);
     void visitHeadline(Headline headline);
     void visitImage(Image image);
@@ -7,8 +7,9 @@ import com.documenteditor.strategy.WordCountStrategy;
  * VISITOR PATTERN: Concrete Visitor
  * STRATEGY PATTERN: Context (uses WordCountStrategy)
  * Counts words in the document using a pluggable counting strategy.
+ * Supports parallel traversal when the strategy is stateless.
  */
-public class WordCountVisitor implements Visitor {
+public class WordCountVisitor implements ParallelVisitor<Integer> {
     private int wordCount;
     private WordCountStrategy strategy;
     
@@ -18,21 +19,41 @@ public class WordCountVisitor implements Visitor {
     }
     
     @Override
-    public void visitDocument(Document document) {
+    public void visitDocument(DocumentView document) {
         wordCount = 0;
-        for (DocumentElement element : document.getChildren()) {
+        for (DocumentElement element : document.getElements()) {
             element.accept(this);
         }
     }
     
+    @Override
+    public WordCountVisitor fork() {
+        return new WordCountVisitor(strategy);
+    }
+    
+    @Override
+    public Integer getPartialResult() {
+        return wordCount;
+    }
+    
+    @Override
+    public Integer combine(Integer left, Integer right) {
+        return left + right;
+    }
+    
+    @Override
+    public void complete(DocumentView document, Integer elements) {
+        wordCount = elements;
+    }
+    
     @Override
     public void visitParagraph(Paragraph paragraph) {
-        wordCount += strategy.countWords(paragraph.getText());
+        wordCount += strategy.countWords(paragraph.getContent());
     }
     
     @Override
     public void visitHeadline(Headline headline) {
-        wordCount += strategy.countWords(headline.getText());
+        wordCount += strategy.countWords(headline.getContent());
     }
     
     @Override